@@ -38,6 +38,7 @@ public class TestContainerConfig {
                             "spring.datasource.password=" + mySQLContainer.getPassword(),
                             "spring.datasource.username=" + mySQLContainer.getUsername(),
                             "spring.datasource.url=" + mySQLContainer.getJdbcUrl(),
+                            "recipes.datasource.replica.url=" + mySQLContainer.getJdbcUrl(),
                             "spring.flyway.url=" + mySQLContainer.getJdbcUrl(),
                             "spring.flyway.user=" + mySQLContainer.getUsername(),
                             "spring.flyway.password=" + mySQLContainer.getPassword());
@@ -2,15 +2,19 @@ package com.recipes.demo.integration.steps;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.recipes.demo.cache.RecipeIngredientIndex;
+import com.recipes.demo.cache.RecipeSearchCache;
 import com.recipes.demo.exception.ErrorInfo;
 import com.recipes.demo.model.PaginatedRecipeResponse;
 import com.recipes.demo.model.RecipeDTO;
 import com.recipes.demo.model.endpoint.RecipeRequest;
+import com.recipes.demo.util.SqlStatementAssertions;
 import com.recipes.demo.util.TestUtil;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.assertj.core.util.Strings;
 import org.junit.After;
@@ -37,15 +41,24 @@ public class RecipeIntegrationsSteps {
     public static final String BASE_PATH = "/recipes";
     private final DataSource dataSource;
     private final RestTemplate restTemplate;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final RecipeSearchCache recipeSearchCache;
+    private final MeterRegistry meterRegistry;
 
     private ResponseEntity<String> response;
+    private SqlStatementAssertions.RequestStatements statementsBeforeCall;
 
     @LocalServerPort
     private int randomServerPort;
 
-    public RecipeIntegrationsSteps(DataSource dataSource, RestTemplateBuilder builder) {
+    public RecipeIntegrationsSteps(DataSource dataSource, RestTemplateBuilder builder,
+                                   RecipeIngredientIndex recipeIngredientIndex, RecipeSearchCache recipeSearchCache,
+                                   MeterRegistry meterRegistry) {
         this.restTemplate = builder.build();
         this.dataSource = dataSource;
+        this.recipeIngredientIndex = recipeIngredientIndex;
+        this.recipeSearchCache = recipeSearchCache;
+        this.meterRegistry = meterRegistry;
     }
 
     public static String createLocalApiUrl(
@@ -57,6 +70,8 @@ public class RecipeIntegrationsSteps {
     @After
     public void tearDown() {
         executeScript("truncate.sql");
+        recipeIngredientIndex.rebuild();
+        recipeSearchCache.invalidate();
     }
 
     private void executeScript(String fileName) {
@@ -69,11 +84,14 @@ public class RecipeIntegrationsSteps {
     @Given("database contains some sample data {string}")
     public void databaseContainsSomeSampleData(String fileName) {
         executeScript(fileName);
+        recipeIngredientIndex.rebuild();
+        recipeSearchCache.invalidate();
     }
 
     @When("call get recipe list api with path {string}")
     public void callApiWithPath(String path) {
         String apiURI = createLocalApiUrl(randomServerPort, BASE_PATH, path);
+        statementsBeforeCall = SqlStatementAssertions.recordedRequestStatements(meterRegistry);
         response = restTemplate.getForEntity(apiURI, String.class);
     }
 
@@ -82,6 +100,11 @@ public class RecipeIntegrationsSteps {
         Assertions.assertEquals(status, response.getStatusCode().value());
     }
 
+    @And("api ran at most {int} SQL statements")
+    public void apiRanAtMostSqlStatements(int statements) throws InterruptedException {
+        SqlStatementAssertions.assertMaxRequestStatements(meterRegistry, statementsBeforeCall, statements);
+    }
+
     @And("get recipe list api response have {int} recipes")
     public void getRecipeListApiResponseHaveItemsRecipes(int items) throws JsonProcessingException {
         List<RecipeDTO> list = getRecipeListFromResponse();
@@ -98,6 +121,7 @@ public class RecipeIntegrationsSteps {
     public void callPostRecipeApiWithJSONRequest(final String json) throws JsonProcessingException {
         RecipeRequest request = TestUtil.buildObjectMapper().readValue(json, RecipeRequest.class);
         String url = createLocalApiUrl(randomServerPort, BASE_PATH, "recipe");
+        statementsBeforeCall = SqlStatementAssertions.recordedRequestStatements(meterRegistry);
         try {
             response = restTemplate.postForEntity(url, request, String.class);
         } catch (HttpClientErrorException httpClientErrorException) {
@@ -0,0 +1,242 @@
+package com.recipes.demo.integration.steps;
+
+import com.recipes.demo.model.RecipeType;
+import com.recipes.demo.repository.RecipeRepository;
+import io.cucumber.java.After;
+import io.cucumber.java.en.And;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.junit.jupiter.api.Assertions;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Runs EXPLAIN on the GET /recipe search queries, as declared on {@link RecipeRepository} with the default sort and
+ * page size appended the way Spring Data does, for every combination of their five filters. The parameters are bound
+ * client side as the application's driver does, so MySQL plans the same inlined statement and can fold the
+ * "(:parameter is unset OR predicate)" filters that are not set.
+ */
+public class SearchQueryPlanSteps {
+
+    private static final String DEFAULT_PAGE = " ORDER BY rs.name DESC, rs.id ASC LIMIT 20";
+    private static final String FULL_SCAN = "ALL";
+    private static final String FILESORT = "Using filesort";
+    private static final String RECIPE_SEARCH_TABLE = "rs";
+    private static final List<String> V7_INDEXES = List.of(
+            "ingredient_recipe.ingredient_recipe_recipe_ingredient_idx",
+            "ingredient_recipe.ingredient_recipe_ingredient_recipe_idx",
+            "recipe.recipe_type_servings_idx",
+            "recipe_search.recipe_search_name_idx",
+            "recipe_search.recipe_search_type_name_idx",
+            "recipe_search.recipe_search_servings_name_idx",
+            "recipe_search.recipe_search_filter_idx");
+    private static final List<String> V7_DROPPED_INDEXES = List.of(
+            "ingredient_recipe.recipe_id_idx",
+            "ingredient_recipe.ingredient_id_idx");
+    private static final String SELECT_INDEXES = """
+            SELECT DISTINCT CONCAT(table_name, '.', index_name)
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE()
+            """;
+
+    private final DataSource dataSource;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final List<String> violations = new ArrayList<>();
+
+    public SearchQueryPlanSteps(DataSource dataSource, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.dataSource = dataSource;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    private record Combination(boolean vegetarian, boolean included, boolean excluded, boolean keyword, boolean servings) {
+
+        static List<Combination> all() {
+            List<Combination> combinations = new ArrayList<>();
+            for (int combination = 0; combination < 32; combination++) {
+                combinations.add(new Combination((combination & 1) != 0, (combination & 2) != 0,
+                        (combination & 4) != 0, (combination & 8) != 0, (combination & 16) != 0));
+            }
+            return combinations;
+        }
+
+        MapSqlParameterSource parameters() {
+            return new MapSqlParameterSource()
+                    .addValue("recipeType", vegetarian ? RecipeType.VEGETARIAN.getLabel() : null)
+                    .addValue("filterByIncludedIngredients", included)
+                    .addValue("filterByExcludedIngredients", excluded)
+                    .addValue("includedIngredientIds", included ? List.of(1L, 2L) : List.of())
+                    .addValue("excludedIngredientIds", excluded ? List.of(3L) : List.of())
+                    .addValue("instructionKeyWord", keyword ? "+boil* +water*" : "")
+                    .addValue("servings", servings ? 4 : null);
+        }
+
+        // The keyword and included ingredient matches come from the FULLTEXT and multi-valued indexes, which
+        // return rows out of name order, every other combination must read an index in the page order
+        boolean sortedByIndex() {
+            return !keyword && !included;
+        }
+
+        // Only the excluded ingredients filter has no index, a count restricted by nothing else reads every row
+        boolean countNeedsFullScan() {
+            return excluded && !vegetarian && !included && !keyword && !servings;
+        }
+
+        Set<String> expectedPageIndexes() {
+            if (vegetarian && servings) {
+                return Set.of("recipe_search_filter_idx");
+            }
+            if (vegetarian) {
+                return Set.of("recipe_search_type_name_idx", "recipe_search_filter_idx");
+            }
+            if (servings) {
+                return Set.of("recipe_search_servings_name_idx");
+            }
+            return Set.of("recipe_search_name_idx");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("vegetarian=%s included=%s excluded=%s keyword=%s servings=%s",
+                    vegetarian, included, excluded, keyword, servings);
+        }
+    }
+
+    @Given("database contains generated search data {string}")
+    public void databaseContainsGeneratedSearchData(String fileName) {
+        executeScript(fileName);
+    }
+
+    @After("@queryPlans")
+    public void deleteGeneratedSearchData() {
+        executeScript("delete_search_plan_recipes.sql");
+        violations.clear();
+    }
+
+    @When("the search query is explained for every filter combination")
+    public void theSearchQueryIsExplainedForEveryFilterCombination() throws NoSuchMethodException {
+        String searchQuery = getSearchQuery("findAll", Pageable.class, String.class, Boolean.class, Boolean.class,
+                List.class, List.class, String.class, Integer.class);
+        for (Combination combination : Combination.all()) {
+            checkPlan("page " + combination, explain(searchQuery + DEFAULT_PAGE, combination.parameters()),
+                    combination.sortedByIndex(), false);
+        }
+    }
+
+    @When("the search, count and keyset queries are explained for every filter combination")
+    public void theSearchCountAndKeysetQueriesAreExplainedForEveryFilterCombination() throws NoSuchMethodException {
+        theSearchQueryIsExplainedForEveryFilterCombination();
+        String countQuery = getSearchQuery("countAll", String.class, Boolean.class, Boolean.class, List.class,
+                List.class, String.class, Integer.class);
+        String keysetQuery = getSearchQuery("findAllAfter", String.class, Long.class, int.class, String.class,
+                Boolean.class, Boolean.class, List.class, List.class, String.class, Integer.class);
+        for (Combination combination : Combination.all()) {
+            checkPlan("count " + combination, explain(countQuery, combination.parameters()), false,
+                    combination.countNeedsFullScan());
+            for (String afterName : new String[]{null, "Plan recipe 02500"}) {
+                MapSqlParameterSource parameters = combination.parameters()
+                        .addValue("afterName", afterName)
+                        .addValue("afterId", afterName == null ? null : 0L)
+                        .addValue("limit", 21);
+                checkPlan("keyset after=" + afterName + " " + combination, explain(keysetQuery, parameters),
+                        combination.sortedByIndex(), false);
+            }
+        }
+    }
+
+    @Then("no search query plan has a full table scan or an avoidable filesort")
+    public void noSearchQueryPlanHasAFullTableScanOrAnAvoidableFilesort() {
+        Assertions.assertTrue(violations.isEmpty(), String.join("\n", violations));
+    }
+
+    @And("every search query plan without keyword or included ingredients reads its composite index")
+    public void everySearchQueryPlanWithoutKeywordOrIncludedIngredientsReadsItsCompositeIndex() throws NoSuchMethodException {
+        String searchQuery = getSearchQuery("findAll", Pageable.class, String.class, Boolean.class, Boolean.class,
+                List.class, List.class, String.class, Integer.class);
+        List<String> wrongIndexes = new ArrayList<>();
+        for (Combination combination : Combination.all()) {
+            if (!combination.sortedByIndex()) {
+                continue;
+            }
+            for (Map<String, Object> step : explain(searchQuery + DEFAULT_PAGE, combination.parameters())) {
+                if (RECIPE_SEARCH_TABLE.equals(step.get("table"))
+                        && !combination.expectedPageIndexes().contains(Objects.toString(step.get("key"), ""))) {
+                    wrongIndexes.add(combination + " reads " + step.get("key") + " instead of "
+                            + combination.expectedPageIndexes() + ": " + step);
+                }
+            }
+        }
+        Assertions.assertTrue(wrongIndexes.isEmpty(), String.join("\n", wrongIndexes));
+    }
+
+    @Then("the V7 composite indexes exist and replace the single column ones")
+    public void theV7CompositeIndexesExistAndReplaceTheSingleColumnOnes() {
+        Set<String> indexes = new HashSet<>(namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForList(SELECT_INDEXES, String.class));
+        Assertions.assertTrue(indexes.containsAll(V7_INDEXES), "Missing V7 indexes in " + indexes);
+        V7_DROPPED_INDEXES.forEach(index -> Assertions.assertFalse(indexes.contains(index), index + " was not dropped"));
+    }
+
+    @And("the ingredient lookups by recipe and by ingredient read their composite index")
+    public void theIngredientLookupsByRecipeAndByIngredientReadTheirCompositeIndex() {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", List.of(1L, 2L, 3L))
+                .addValue("recipeType", RecipeType.VEGETARIAN.getLabel())
+                .addValue("servings", 4);
+        assertReadsIndex("SELECT recipe_id, ingredient_id FROM ingredient_recipe WHERE recipe_id IN (:ids)",
+                parameters, "ingredient_recipe_recipe_ingredient_idx");
+        assertReadsIndex("SELECT recipe_id FROM ingredient_recipe WHERE ingredient_id IN (:ids)",
+                parameters, "ingredient_recipe_ingredient_recipe_idx");
+        assertReadsIndex("SELECT id FROM recipe WHERE recipe_type = :recipeType AND servings_number = :servings",
+                parameters, "recipe_type_servings_idx");
+    }
+
+    private void assertReadsIndex(String query, MapSqlParameterSource parameters, String index) {
+        List<Map<String, Object>> plan = explain(query, parameters);
+        Assertions.assertTrue(plan.stream().anyMatch(step -> index.equals(step.get("key"))),
+                query + " does not read " + index + ": " + plan);
+    }
+
+    private void checkPlan(String description, List<Map<String, Object>> plan, boolean sortedByIndex,
+                           boolean fullScanExpected) {
+        for (Map<String, Object> step : plan) {
+            if (step.get("table") == null) {
+                continue;
+            }
+            String extra = Objects.toString(step.get("Extra"), "");
+            if (!fullScanExpected && FULL_SCAN.equals(step.get("type"))) {
+                violations.add(description + " scans the whole " + step.get("table") + " table: " + step);
+            }
+            if (sortedByIndex && extra.contains(FILESORT)) {
+                violations.add(description + " sorts " + step.get("table") + " rows: " + step);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> explain(String query, MapSqlParameterSource parameters) {
+        return namedParameterJdbcTemplate.queryForList("EXPLAIN " + query, parameters);
+    }
+
+    private static String getSearchQuery(String methodName, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return RecipeRepository.class.getMethod(methodName, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private void executeScript(String fileName) {
+        ResourceDatabasePopulator databasePopulator = new ResourceDatabasePopulator();
+        databasePopulator.addScript(new ClassPathResource(fileName));
+        DatabasePopulatorUtils.execute(databasePopulator, dataSource);
+    }
+}
@@ -0,0 +1,7 @@
+DELETE ingxrp
+FROM ingredient_recipe as ingxrp
+INNER JOIN recipe as rp on rp.id = ingxrp.recipe_id
+WHERE rp.name LIKE 'Plan recipe %';
+DELETE
+FROM recipe
+WHERE name LIKE 'Plan recipe %';
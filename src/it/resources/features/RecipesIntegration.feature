@@ -6,13 +6,15 @@ Feature: Recipe API
     Then api returns <status>
     And get recipe list api response have <items> recipes
     And get recipe list api response have '<recipeNames>'
+    And api ran at most <statements> SQL statements
 
 
     Examples:
 
-      | path                                                                                                                                  | status | items | recipeNames      |
-      | recipe?page=0&size=10&isVegetarian=true&includedIngredients=Banana,Apple&excludedIngredients=Beef&instructionKeyword=Enjoy&servings=4 | 200    | 1     | Recipe           |
-      | recipe?page=0&size=10&includedIngredients=Banana,Apple&excludedIngredients=Beef&servings=4                                            | 200    | 2     | Recipe, Recipe 2 |
+      | path                                                                                                                                  | status | items | recipeNames      | statements |
+      | recipe?page=0&size=10&isVegetarian=true&includedIngredients=Banana,Apple&excludedIngredients=Beef&instructionKeyword=Enjoy&servings=4 | 200    | 1     | Recipe           | 4          |
+      | recipe?page=0&size=10&includedIngredients=Banana,Apple&excludedIngredients=Beef&servings=4                                            | 200    | 2     | Recipe, Recipe 2 | 4          |
+      | recipe?size=1&after=&includedIngredients=Banana,Apple&servings=4                                                                      | 200    | 1     | Recipe 2         | 2          |
 
 
   Scenario Outline: check save a recipe successfully
@@ -0,0 +1,20 @@
+Feature: Search query plans
+
+  @queryPlans
+  Scenario: every filter combination of the recipe search is served by indexes
+    Given database contains generated search data 'insert_search_plan_recipes.sql'
+    When the search query is explained for every filter combination
+    Then no search query plan has a full table scan or an avoidable filesort
+
+  @queryPlans
+  Scenario: unset optional filters are folded away and the set ones pick their composite index
+    Given database contains generated search data 'insert_search_plan_recipes.sql'
+    When the search, count and keyset queries are explained for every filter combination
+    Then no search query plan has a full table scan or an avoidable filesort
+    And every search query plan without keyword or included ingredients reads its composite index
+
+  @queryPlans
+  Scenario: the composite indexes of V7 serve the ingredient and recipe lookups
+    Given database contains generated search data 'insert_search_plan_recipes.sql'
+    Then the V7 composite indexes exist and replace the single column ones
+    And the ingredient lookups by recipe and by ingredient read their composite index
@@ -19,3 +19,11 @@ INSERT INTO ingredient_recipe (id, recipe_id, ingredient_id, measurement_unit_id
 VALUES (4, 2, 3, 6, 25);
 INSERT INTO ingredient_recipe (id, recipe_id, ingredient_id, measurement_unit_id, quantity)
 VALUES (5, 2, 1, 2, 1);
+
+INSERT INTO recipe_search (id, name, instructions, servings_number, recipe_type, creation_date, updated_date,
+                           ingredient_ids)
+SELECT rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+       JSON_ARRAYAGG(ingxrp.ingredient_id)
+FROM recipe as rp
+INNER JOIN ingredient_recipe as ingxrp on rp.id = ingxrp.recipe_id
+GROUP BY rp.id;
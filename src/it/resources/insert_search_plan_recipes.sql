@@ -0,0 +1,28 @@
+SET SESSION cte_max_recursion_depth = 5000;
+
+INSERT INTO recipe (name, instructions, servings_number, recipe_type, creation_date, updated_date)
+WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+SELECT CONCAT('Plan recipe ', LPAD(n, 5, '0')),
+       ELT(1 + n % 4, 'Boil water and serve', 'Bake in the oven', 'Chop and fry', 'Stir and simmer'),
+       1 + n % 8,
+       IF(n % 3 = 0, 'Vegetarian', 'No Vegetarian'),
+       NOW(6),
+       NOW(6)
+FROM seq;
+
+INSERT INTO ingredient_recipe (recipe_id, ingredient_id, measurement_unit_id, quantity)
+SELECT rp.id, ing.id, 1, 1
+FROM recipe as rp
+INNER JOIN ingredient as ing on MOD(rp.id + ing.id, 7) = 0
+WHERE rp.name LIKE 'Plan recipe %';
+
+INSERT INTO recipe_search (id, name, instructions, servings_number, recipe_type, creation_date, updated_date,
+                           ingredient_ids)
+SELECT rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+       JSON_ARRAYAGG(ingxrp.ingredient_id)
+FROM recipe as rp
+INNER JOIN ingredient_recipe as ingxrp on rp.id = ingxrp.recipe_id
+WHERE rp.name LIKE 'Plan recipe %'
+GROUP BY rp.id;
+
+ANALYZE TABLE recipe, ingredient_recipe, recipe_search;
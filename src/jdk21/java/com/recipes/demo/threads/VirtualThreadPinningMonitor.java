@@ -0,0 +1,68 @@
+package com.recipes.demo.threads;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams the JFR jdk.VirtualThreadPinned events, raised when a virtual thread blocks while it cannot unmount from
+ * its carrier, e.g. inside a synchronized block of the JDBC driver or the connection pool. Each pinning longer than
+ * the threshold is timed under jvm.threads.virtual.pinned, tagged with the first non JDK frame of its stack, and
+ * logged with that stack. Only compiled by the jdk21 Maven profile, the event does not exist before Java 21.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "recipes.threads.virtual", name = "enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final RecordingStream recordingStream = new RecordingStream();
+
+    public VirtualThreadPinningMonitor(@Value("${recipes.threads.virtual.pinned-threshold:20ms}") Duration threshold) {
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::record);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String pinnedIn = frames.stream()
+                .map(frame -> frame.getMethod().getType().getName())
+                .filter(type -> !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun."))
+                .findFirst()
+                .orElse("unknown");
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to their carrier thread")
+                .tag("class", pinnedIn)
+                .register(Metrics.globalRegistry)
+                .record(event.getDuration());
+        log.warn("Virtual thread pinned for {} ms in {}: {}", event.getDuration().toMillis(), pinnedIn,
+                frames.stream().limit(LOGGED_FRAMES).map(VirtualThreadPinningMonitor::describe).toList());
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
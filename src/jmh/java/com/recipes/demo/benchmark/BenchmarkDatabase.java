@@ -0,0 +1,164 @@
+package com.recipes.demo.benchmark;
+
+import com.recipes.demo.DemoApplication;
+import com.recipes.demo.cache.RecipeIngredientIndex;
+import com.recipes.demo.model.RecipeType;
+import com.recipes.demo.repository.RecipeJdbcRepository;
+import com.recipes.demo.repository.entity.IngredientRecipe;
+import com.recipes.demo.repository.entity.Recipe;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * MySQL container plus an application context over it, without a web server unless asked for, seeded with generated
+ * recipes through the same JDBC batch path as the bulk import endpoint.
+ */
+public class BenchmarkDatabase implements AutoCloseable {
+
+    private static final int SEED_CHUNK_SIZE = 5000;
+    private static final long VEGETARIAN_TYPE_ID = 1L;
+    private static final String[] INSTRUCTION_WORDS = {"boil", "water", "bake", "oven", "chop", "fry", "stir",
+            "simmer", "season", "serve", "grill", "whisk", "slice", "drain", "roast", "blend"};
+
+    private final MySQLContainer<?> container;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkDatabase(MySQLContainer<?> container, ConfigurableApplicationContext context) {
+        this.container = container;
+        this.context = context;
+    }
+
+    public static BenchmarkDatabase start(int recipeCount) {
+        return start(recipeCount, WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts the context with the servlet web server on a random port, see {@link #getServerPort()}. The extra
+     * arguments are passed as command line properties.
+     */
+    public static BenchmarkDatabase startWebServer(int recipeCount, String... arguments) {
+        return start(recipeCount, WebApplicationType.SERVLET, arguments);
+    }
+
+    /**
+     * Starts the context with the reactive profile and the Netty web server on a random port, which needs the
+     * reactive Maven profile on the classpath.
+     */
+    public static BenchmarkDatabase startReactiveWebServer(int recipeCount, String... arguments) {
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=reactive"));
+        args.addAll(List.of(arguments));
+        return start(recipeCount, WebApplicationType.REACTIVE, args.toArray(String[]::new));
+    }
+
+    private static BenchmarkDatabase start(int recipeCount, WebApplicationType webApplicationType, String... arguments) {
+        MySQLContainer<?> container = new MySQLContainer<>("mysql:8.0-debian")
+                .withUsername("test")
+                .withPassword("test")
+                .withDatabaseName("recipedb")
+                .withUrlParam("rewriteBatchedStatements", "true");
+        container.start();
+
+        List<String> args = new ArrayList<>(List.of("--spring.datasource.url=" + container.getJdbcUrl(),
+                "--spring.datasource.username=" + container.getUsername(),
+                "--spring.datasource.password=" + container.getPassword(),
+                "--spring.r2dbc.url=r2dbc:mysql://" + container.getHost() + ":"
+                        + container.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + container.getDatabaseName(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--server.port=0"));
+        args.addAll(List.of(arguments));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+
+        BenchmarkDatabase database = new BenchmarkDatabase(container, context);
+        database.seed(recipeCount);
+        return database;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public boolean containsBean(String name) {
+        return context.containsBean(name);
+    }
+
+    public int getServerPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * Inserts the recipes in chunks with 2 to 6 random ingredients each and instructions drawn from a small
+     * vocabulary, so every filter matches a predictable share of the catalogue. The random seed is fixed so
+     * runs are comparable.
+     */
+    private void seed(int recipeCount) {
+        Random random = new Random(42);
+        Map<Long, Long> ingredientTypes = new HashMap<>();
+        getBean(JdbcTemplate.class).query("SELECT id, ingredient_type_id FROM ingredient",
+                (RowCallbackHandler) rs -> ingredientTypes.put(rs.getLong("id"), rs.getLong("ingredient_type_id")));
+        List<Long> ingredientIds = new ArrayList<>(ingredientTypes.keySet());
+        List<Long> measurementUnitIds = getBean(JdbcTemplate.class).queryForList("SELECT id FROM measurement_unit", Long.class);
+        RecipeJdbcRepository recipeJdbcRepository = getBean(RecipeJdbcRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < recipeCount; from += SEED_CHUNK_SIZE) {
+            int to = Math.min(from + SEED_CHUNK_SIZE, recipeCount);
+            List<Recipe> recipes = new ArrayList<>();
+            List<List<Long>> recipeIngredients = new ArrayList<>();
+            for (int index = from; index < to; index++) {
+                Collections.shuffle(ingredientIds, random);
+                List<Long> ingredients = List.copyOf(ingredientIds.subList(0, 2 + random.nextInt(5)));
+                boolean vegetarian = ingredients.stream().allMatch(id -> ingredientTypes.get(id) == VEGETARIAN_TYPE_ID);
+                recipes.add(Recipe.builder()
+                        .name(String.format("Recipe %07d", index))
+                        .instructions(randomInstructions(random))
+                        .servingsNumber(1 + random.nextInt(8))
+                        .recipeType((vegetarian ? RecipeType.VEGETARIAN : RecipeType.NON_VEGETARIAN).getLabel())
+                        .creationDate(now)
+                        .updatedDate(now)
+                        .build());
+                recipeIngredients.add(ingredients);
+            }
+            recipeJdbcRepository.insertRecipes(recipes);
+
+            List<IngredientRecipe> ingredientRecipes = new ArrayList<>();
+            for (int index = 0; index < recipes.size(); index++) {
+                Long recipeId = recipes.get(index).getId();
+                for (Long ingredientId : recipeIngredients.get(index)) {
+                    ingredientRecipes.add(IngredientRecipe.builder()
+                            .recipeId(recipeId)
+                            .ingredientId(ingredientId)
+                            .measurementUnitId(measurementUnitIds.get(random.nextInt(measurementUnitIds.size())))
+                            .quantity(1 + random.nextInt(500))
+                            .build());
+                }
+            }
+            recipeJdbcRepository.insertIngredientRecipes(ingredientRecipes);
+            recipeJdbcRepository.refreshRecipeSearch(recipes.stream().map(Recipe::getId).toList());
+        }
+        getBean(RecipeIngredientIndex.class).rebuild();
+    }
+
+    private static String randomInstructions(Random random) {
+        StringJoiner instructions = new StringJoiner(" ");
+        for (int word = 0; word < 8; word++) {
+            instructions.add(INSTRUCTION_WORDS[random.nextInt(INSTRUCTION_WORDS.length)]);
+        }
+        return instructions.toString();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        container.stop();
+    }
+}
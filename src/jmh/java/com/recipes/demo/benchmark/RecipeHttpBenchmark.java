@@ -0,0 +1,81 @@
+package com.recipes.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /recipe/{id} and GET /recipe throughput with far more concurrent clients than the 200 Tomcat platform threads,
+ * on platform threads, on virtual threads and on the WebFlux and R2DBC stack. The recipe and search caches are
+ * disabled so every request goes to the database. The virtual thread mode needs the jdk21 profile on a Java 21 JVM
+ * and the reactive mode the reactive profile, e.g.
+ * {@code mvn -Pbenchmark,jdk21,reactive test-compile exec:exec -Djmh.args="RecipeHttpBenchmark -p stack=platform,virtual,reactive"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(1000)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeHttpBenchmark {
+
+    private static final int RECIPE_COUNT = 10000;
+
+    @Param({"platform", "virtual", "reactive"})
+    public String stack;
+
+    private BenchmarkDatabase database;
+    private HttpClient httpClient;
+    private String recipeUrl;
+    private String searchUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] arguments = {"--recipes.threads.virtual.enabled=" + stack.equals("virtual"),
+                "--recipes.cache.recipe.maximum-size=0",
+                "--recipes.cache.recipe-search.maximum-size=0",
+                "--spring.datasource.hikari.maximum-pool-size=50"};
+        if (stack.equals("reactive")) {
+            database = BenchmarkDatabase.startReactiveWebServer(RECIPE_COUNT, arguments);
+            if (!database.containsBean("reactiveRecipeController")) {
+                database.close();
+                throw new IllegalStateException("The reactive stack needs the reactive Maven profile");
+            }
+        } else {
+            database = BenchmarkDatabase.startWebServer(RECIPE_COUNT, arguments);
+            if (stack.equals("virtual") && !database.containsBean("virtualThreadProtocolHandlerCustomizer")) {
+                database.close();
+                throw new IllegalStateException("Virtual threads need the jdk21 Maven profile on a Java 21 JVM");
+            }
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        recipeUrl = "http://localhost:" + database.getServerPort() + "/recipes/recipe/";
+        searchUrl = "http://localhost:" + database.getServerPort() + "/recipes/recipe?size=10&count=NONE&servings=";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public int getRecipeById() throws IOException, InterruptedException {
+        long recipeId = ThreadLocalRandom.current().nextLong(1, RECIPE_COUNT + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(recipeUrl + recipeId)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int getRecipes() throws IOException, InterruptedException {
+        int servings = ThreadLocalRandom.current().nextInt(1, 9);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(searchUrl + servings)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
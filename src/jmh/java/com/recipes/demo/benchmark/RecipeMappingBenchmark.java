@@ -0,0 +1,73 @@
+package com.recipes.demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.recipes.demo.model.IngredientRecipeDTO;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipeType;
+import com.recipes.demo.repository.entity.Recipe;
+import com.recipes.demo.util.RecipeUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON serialisation of a GET /recipe page, which need no database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeMappingBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int pageSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<Recipe> recipes;
+    private List<IngredientRecipeDTO> ingredients;
+    private PaginatedRecipeResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        recipes = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            recipes.add(Recipe.builder()
+                    .id(id)
+                    .name("Recipe " + id)
+                    .instructions("Boil water in a large pot. Salt the water, add the pasta and stir occasionally.")
+                    .servingsNumber(4)
+                    .recipeType(RecipeType.VEGETARIAN.getLabel())
+                    .creationDate(now)
+                    .updatedDate(now)
+                    .build());
+        }
+        ingredients = List.of(
+                IngredientRecipeDTO.builder().ingredientId(1L).ingredientName("Banana").measurementUnitId(1L).quantity(2).build(),
+                IngredientRecipeDTO.builder().ingredientId(2L).ingredientName("Apple").measurementUnitId(2L).quantity(1).build(),
+                IngredientRecipeDTO.builder().ingredientId(3L).ingredientName("Grape").measurementUnitId(6L).quantity(25).build());
+        response = new PaginatedRecipeResponse(new SliceImpl<>(buildRecipeDTOs(), PageRequest.of(0, pageSize), true), 1000L, false);
+    }
+
+    @Benchmark
+    public List<RecipeDTO> buildRecipeDTOs() {
+        return recipes.stream()
+                .map(recipe -> RecipeUtil.getBuildRecipeDTO(recipe, ingredients))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializePaginatedRecipeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
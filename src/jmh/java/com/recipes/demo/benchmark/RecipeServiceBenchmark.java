@@ -0,0 +1,130 @@
+package com.recipes.demo.benchmark;
+
+import com.recipes.demo.cache.RecipeCache;
+import com.recipes.demo.cache.RecipeSearchCache;
+import com.recipes.demo.exception.RecipeException;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.IngredientRecipeDTO;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.service.IRecipeService;
+import com.recipes.demo.util.RecipeUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service hot paths against a seeded MySQL container. Each catalogue size gets its own container, e.g.
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="RecipeServiceBenchmark -p recipeCount=100000"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecipeServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    public int recipeCount;
+
+    private BenchmarkDatabase database;
+    private IRecipeService recipeService;
+    private RecipeCache recipeCache;
+    private RecipeSearchCache recipeSearchCache;
+    private final AtomicLong savedRecipes = new AtomicLong();
+
+    /**
+     * Every combination of the five GET /recipe filters, so the 32 variants show which ones still hit slow plans.
+     */
+    @State(Scope.Thread)
+    public static class SearchFilters {
+
+        @Param({"false", "true"})
+        public boolean vegetarian;
+        @Param({"false", "true"})
+        public boolean included;
+        @Param({"false", "true"})
+        public boolean excluded;
+        @Param({"false", "true"})
+        public boolean keyword;
+        @Param({"false", "true"})
+        public boolean servings;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start(recipeCount);
+        recipeService = database.getBean(IRecipeService.class);
+        recipeCache = database.getBean(RecipeCache.class);
+        recipeSearchCache = database.getBean(RecipeSearchCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public RecipeDTO saveRecipe() throws RecipeException {
+        RecipeDTO recipeDTO = RecipeDTO.builder()
+                .name("Benchmark recipe " + savedRecipes.incrementAndGet())
+                .instructions("Boil water in a large pot and add the pasta")
+                .servingsNumber(4)
+                .ingredients(List.of(
+                        IngredientRecipeDTO.builder().ingredientId(1L).measurementUnitId(1L).quantity(250).build(),
+                        IngredientRecipeDTO.builder().ingredientId(2L).measurementUnitId(2L).quantity(1).build()))
+                .build();
+        return recipeService.saveRecipe(recipeDTO);
+    }
+
+    @Benchmark
+    public RecipeDTO getRecipeById() throws RecipeException {
+        return recipeService.getRecipeById(randomRecipeId());
+    }
+
+    @Benchmark
+    public RecipeDTO getRecipeByIdUncached() throws RecipeException {
+        Long recipeId = randomRecipeId();
+        recipeCache.evict(recipeId);
+        return recipeService.getRecipeById(recipeId);
+    }
+
+    @Benchmark
+    public PaginatedRecipeResponse getRecipes(SearchFilters filters) throws RecipeException {
+        recipeSearchCache.invalidate();
+        return search(filters, false);
+    }
+
+    @Benchmark
+    public PaginatedRecipeResponse getRecipesWithFacets(SearchFilters filters) throws RecipeException {
+        recipeSearchCache.invalidate();
+        return search(filters, true);
+    }
+
+    @Benchmark
+    public PaginatedRecipeResponse getRecipesCached(SearchFilters filters) throws RecipeException {
+        return search(filters, false);
+    }
+
+    private PaginatedRecipeResponse search(SearchFilters filters, boolean facets) throws RecipeException {
+        return recipeService.getRecipes(PageRequest.of(0, PAGE_SIZE, RecipeUtil.DEFAULT_RECIPE_SORT),
+                filters.vegetarian ? Boolean.TRUE : null,
+                filters.included ? List.of("Banana", "Apple") : null,
+                filters.excluded ? List.of("Garlic") : null,
+                filters.keyword ? "boil water" : null,
+                filters.servings ? 4 : null,
+                CountMode.EXACT,
+                facets);
+    }
+
+    private Long randomRecipeId() {
+        return ThreadLocalRandom.current().nextLong(1, recipeCount + 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.recipes.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.recipes.demo.model.IngredientRecipeDTO;
+import com.recipes.demo.model.RecipeDTO;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size and TTL bounded cache of assembled {@link RecipeDTO}s served by GET /recipe/{id}.
+ * Caffeine evicts with W-TinyLFU, so the few popular recipes stay resident while one-off reads are dropped.
+ * Like {@link RecipeSearchCache}, a read takes the write {@link #generation()} before loading and its result is
+ * only stored if no recipe was written since. Entries are copied in and out, so callers may modify what they get.
+ */
+@Component
+public class RecipeCache {
+
+    private final Cache<Long, RecipeDTO> recipes;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RecipeCache(@Value("${recipes.cache.recipe.maximum-size:10000}") long maximumSize,
+                       @Value("${recipes.cache.recipe.ttl:10m}") Duration ttl) {
+        this.recipes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, recipes, "recipes");
+    }
+
+    public Optional<RecipeDTO> get(Long recipeId) {
+        return Optional.ofNullable(recipes.getIfPresent(recipeId)).map(RecipeCache::copy);
+    }
+
+    /**
+     * The write generation to read before loading a recipe and pass to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a copy of the recipe unless a recipe was written after the given generation was read. The check runs
+     * under the entry lock, so it cannot interleave with the invalidation of the same recipe.
+     */
+    public void put(RecipeDTO recipeDTO, long readGeneration) {
+        RecipeDTO cachedRecipe = copy(recipeDTO);
+        recipes.asMap().compute(recipeDTO.getId(),
+                (recipeId, current) -> generation.get() == readGeneration ? cachedRecipe : current);
+    }
+
+    /**
+     * Evicts the recipe now and, inside a transaction, once more after commit so a read racing with the
+     * write cannot leave the old version cached. Both times the generation moves first, so a read loaded before
+     * is not stored afterwards.
+     */
+    public void evict(Long recipeId) {
+        invalidate(recipeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(recipeId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long recipeId) {
+        generation.incrementAndGet();
+        recipes.invalidate(recipeId);
+    }
+
+    private static RecipeDTO copy(RecipeDTO recipeDTO) {
+        List<IngredientRecipeDTO> ingredients = null;
+        if (recipeDTO.getIngredients() != null) {
+            ingredients = new ArrayList<>(recipeDTO.getIngredients().size());
+            for (IngredientRecipeDTO ingredient : recipeDTO.getIngredients()) {
+                ingredients.add(IngredientRecipeDTO.builder()
+                        .ingredientId(ingredient.getIngredientId())
+                        .ingredientName(ingredient.getIngredientName())
+                        .quantity(ingredient.getQuantity())
+                        .measurementUnitId(ingredient.getMeasurementUnitId())
+                        .build());
+            }
+        }
+        return RecipeDTO.builder()
+                .id(recipeDTO.getId())
+                .name(recipeDTO.getName())
+                .instructions(recipeDTO.getInstructions())
+                .servingsNumber(recipeDTO.getServingsNumber())
+                .recipeType(recipeDTO.getRecipeType())
+                .creationDate(recipeDTO.getCreationDate())
+                .ingredients(ingredients)
+                .updatedDate(recipeDTO.getUpdatedDate())
+                .build();
+    }
+
+    public CacheStats getStats() {
+        return recipes.stats();
+    }
+}
@@ -0,0 +1,308 @@
+package com.recipes.demo.cache;
+
+import com.recipes.demo.repository.RecipeJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from ingredient id to the bitmap of recipe ids using it. Included and excluded ingredient
+ * filters become bitmap OR/AND NOT operations, so MySQL only has to sort and page the resulting ids.
+ * Recipe type and servings number bitmaps complete the non keyword filters, so result sizes and facet counts can be
+ * computed in memory.
+ * The index is built when the application is ready and kept current by the service write paths after each commit.
+ * Those paths only see the writes of this instance, so the index assumes a single application instance and no
+ * direct writes to the database. Otherwise it drifts until rebuilt, either on the recipes.search.index.rebuild-cron
+ * schedule or on demand through the recipeindex actuator endpoint.
+ */
+@Slf4j
+@Component
+public class RecipeIngredientIndex {
+
+    private final RecipeJdbcRepository recipeJdbcRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+    private Map<Long, RoaringBitmap> recipesByIngredient = new HashMap<>();
+    private RoaringBitmap recipes = new RoaringBitmap();
+    private Map<String, RoaringBitmap> recipesByType = new HashMap<>();
+    private Map<Integer, RoaringBitmap> recipesByServings = new HashMap<>();
+    private List<Runnable> pendingUpdates;
+    private volatile boolean ready;
+
+    public RecipeIngredientIndex(RecipeJdbcRepository recipeJdbcRepository) {
+        this.recipeJdbcRepository = recipeJdbcRepository;
+    }
+
+    public record Summary(boolean ready, long recipes, int ingredients) {
+    }
+
+    /**
+     * Loads the index from ingredient_recipe. Writes committed while the table is being read are replayed on top
+     * of the loaded snapshot, which is safe because every update replaces the whole ingredient set of a recipe.
+     * Searches keep using the previous index until the new one is swapped in, and concurrent rebuilds run one
+     * after the other.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${recipes.search.index.rebuild-cron:-}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            load();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, RoaringBitmap> loadedRecipesByIngredient = new HashMap<>();
+        RoaringBitmap loadedRecipes = new RoaringBitmap();
+        recipeJdbcRepository.streamIngredientRecipeIds((recipeId, ingredientId) -> {
+            int recipe = Math.toIntExact(recipeId);
+            loadedRecipesByIngredient.computeIfAbsent(ingredientId, id -> new RoaringBitmap()).add(recipe);
+            loadedRecipes.add(recipe);
+        });
+        loadedRecipesByIngredient.values().forEach(RoaringBitmap::runOptimize);
+        Map<String, RoaringBitmap> loadedRecipesByType = new HashMap<>();
+        Map<Integer, RoaringBitmap> loadedRecipesByServings = new HashMap<>();
+        recipeJdbcRepository.streamRecipeFilterAttributes(recipe -> {
+            int recipeId = Math.toIntExact(recipe.getId());
+            loadedRecipesByType.computeIfAbsent(recipe.getRecipeType(), type -> new RoaringBitmap()).add(recipeId);
+            loadedRecipesByServings.computeIfAbsent(recipe.getServingsNumber(), servings -> new RoaringBitmap()).add(recipeId);
+        });
+
+        lock.writeLock().lock();
+        try {
+            recipesByIngredient = loadedRecipesByIngredient;
+            recipes = loadedRecipes;
+            recipesByType = loadedRecipesByType;
+            recipesByServings = loadedRecipesByServings;
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Recipe ingredient index loaded: {} recipes, {} ingredients", recipes.getCardinality(), recipesByIngredient.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Summary summarize() {
+        lock.readLock().lock();
+        try {
+            return new Summary(ready, recipes.getLongCardinality(), recipesByIngredient.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the ingredients indexed for a recipe once the current transaction commits.
+     */
+    public void update(Long recipeId, Collection<Long> ingredientIds) {
+        Set<Long> ingredients = new HashSet<>(ingredientIds);
+        afterCommit(() -> {
+            int recipe = Math.toIntExact(recipeId);
+            removeRecipe(recipe);
+            for (Long ingredientId : ingredients) {
+                recipesByIngredient.computeIfAbsent(ingredientId, id -> new RoaringBitmap()).add(recipe);
+            }
+            if (!ingredients.isEmpty()) {
+                recipes.add(recipe);
+            }
+        });
+    }
+
+    /**
+     * Replaces the type and servings number indexed for a recipe once the current transaction commits.
+     */
+    public void updateAttributes(Long recipeId, String recipeType, int servingsNumber) {
+        afterCommit(() -> {
+            int recipe = Math.toIntExact(recipeId);
+            removeAttributes(recipe);
+            recipesByType.computeIfAbsent(recipeType, type -> new RoaringBitmap()).add(recipe);
+            recipesByServings.computeIfAbsent(servingsNumber, servings -> new RoaringBitmap()).add(recipe);
+        });
+    }
+
+    /**
+     * Drops a recipe from the index once the current transaction commits.
+     */
+    public void remove(Long recipeId) {
+        afterCommit(() -> {
+            int recipe = Math.toIntExact(recipeId);
+            removeRecipe(recipe);
+            removeAttributes(recipe);
+        });
+    }
+
+    /**
+     * Returns the ids of the recipes having any of the included ingredients (every recipe with ingredients when
+     * there is no include filter) and none of the excluded ones, or empty when the index is not loaded yet.
+     */
+    public Optional<RoaringBitmap> findRecipeIds(boolean filterByIncludedIngredients,
+                                                 Collection<Long> includedIngredientIds,
+                                                 Collection<Long> excludedIngredientIds) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(matchIngredients(filterByIncludedIngredients, includedIngredientIds, excludedIngredientIds));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the recipes matching the ingredient filters, as {@link #findRecipeIds} does, and the optional type and
+     * servings number, or returns empty when the index is not loaded yet.
+     */
+    public OptionalLong countRecipes(boolean filterByIncludedIngredients,
+                                     Collection<Long> includedIngredientIds,
+                                     Collection<Long> excludedIngredientIds,
+                                     String recipeType,
+                                     Integer servingsNumber) {
+        if (!ready) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return OptionalLong.of(matchFilters(filterByIncludedIngredients, includedIngredientIds, excludedIngredientIds,
+                    recipeType, servingsNumber).getLongCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Result counts per recipe type, servings number and ingredient of a filtered recipe set. Values matching no
+     * recipe are left out.
+     */
+    public record FacetCounts(Map<String, Long> recipeTypes, Map<Integer, Long> servings, Map<Long, Long> ingredients) {
+    }
+
+    /**
+     * Counts the recipes matching the same filters as {@link #countRecipes} by recipe type, servings number and
+     * ingredient, intersecting the matching set once with every value bitmap, or returns empty when the index is
+     * not loaded yet.
+     */
+    public Optional<FacetCounts> countFacets(boolean filterByIncludedIngredients,
+                                             Collection<Long> includedIngredientIds,
+                                             Collection<Long> excludedIngredientIds,
+                                             String recipeType,
+                                             Integer servingsNumber) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap recipeIds = matchFilters(filterByIncludedIngredients, includedIngredientIds, excludedIngredientIds,
+                    recipeType, servingsNumber);
+            return Optional.of(new FacetCounts(countByValue(recipeIds, recipesByType),
+                    countByValue(recipeIds, recipesByServings),
+                    countByValue(recipeIds, recipesByIngredient)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> Map<K, Long> countByValue(RoaringBitmap recipeIds, Map<K, RoaringBitmap> recipesByValue) {
+        Map<K, Long> counts = new HashMap<>();
+        recipesByValue.forEach((value, valueRecipeIds) -> {
+            long count = RoaringBitmap.andCardinality(recipeIds, valueRecipeIds);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private RoaringBitmap matchFilters(boolean filterByIncludedIngredients,
+                                       Collection<Long> includedIngredientIds,
+                                       Collection<Long> excludedIngredientIds,
+                                       String recipeType,
+                                       Integer servingsNumber) {
+        RoaringBitmap recipeIds = matchIngredients(filterByIncludedIngredients, includedIngredientIds, excludedIngredientIds);
+        if (recipeType != null) {
+            recipeIds.and(recipesByType.getOrDefault(recipeType, new RoaringBitmap()));
+        }
+        if (servingsNumber != null) {
+            recipeIds.and(recipesByServings.getOrDefault(servingsNumber, new RoaringBitmap()));
+        }
+        return recipeIds;
+    }
+
+    private RoaringBitmap matchIngredients(boolean filterByIncludedIngredients,
+                                           Collection<Long> includedIngredientIds,
+                                           Collection<Long> excludedIngredientIds) {
+        RoaringBitmap recipeIds = filterByIncludedIngredients
+                ? RoaringBitmap.or(bitmapsOf(includedIngredientIds))
+                : recipes.clone();
+        if (!excludedIngredientIds.isEmpty()) {
+            recipeIds.andNot(RoaringBitmap.or(bitmapsOf(excludedIngredientIds)));
+        }
+        return recipeIds;
+    }
+
+    private Iterator<RoaringBitmap> bitmapsOf(Collection<Long> ingredientIds) {
+        return ingredientIds.stream()
+                .map(recipesByIngredient::get)
+                .filter(Objects::nonNull)
+                .iterator();
+    }
+
+    private void removeRecipe(int recipe) {
+        recipesByIngredient.values().forEach(recipeIds -> recipeIds.remove(recipe));
+        recipes.remove(recipe);
+    }
+
+    private void removeAttributes(int recipe) {
+        recipesByType.values().forEach(recipeIds -> recipeIds.remove(recipe));
+        recipesByServings.values().forEach(recipeIds -> recipeIds.remove(recipe));
+    }
+
+    private void afterCommit(Runnable update) {
+        Runnable lockedUpdate = () -> {
+            lock.writeLock().lock();
+            try {
+                if (pendingUpdates != null) {
+                    pendingUpdates.add(update);
+                }
+                update.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lockedUpdate.run();
+                }
+            });
+        } else {
+            lockedUpdate.run();
+        }
+    }
+}
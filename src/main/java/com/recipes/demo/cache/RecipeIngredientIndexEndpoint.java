@@ -0,0 +1,39 @@
+package com.recipes.demo.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to inspect the {@link RecipeIngredientIndex} and reload it after recipes were written by another
+ * instance or straight to the database. A rebuild reads the whole catalogue, so the endpoint is only exposed through
+ * JMX unless the web exposure is widened on the management port.
+ */
+@Component
+@Endpoint(id = "recipeindex")
+public class RecipeIngredientIndexEndpoint {
+
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final RecipeSearchCache recipeSearchCache;
+
+    public RecipeIngredientIndexEndpoint(RecipeIngredientIndex recipeIngredientIndex, RecipeSearchCache recipeSearchCache) {
+        this.recipeIngredientIndex = recipeIngredientIndex;
+        this.recipeSearchCache = recipeSearchCache;
+    }
+
+    @ReadOperation
+    public RecipeIngredientIndex.Summary summary() {
+        return recipeIngredientIndex.summarize();
+    }
+
+    /**
+     * Reloads the index and drops the cached searches computed from the previous one.
+     */
+    @WriteOperation
+    public RecipeIngredientIndex.Summary rebuild() {
+        recipeIngredientIndex.rebuild();
+        recipeSearchCache.invalidate();
+        return recipeIngredientIndex.summarize();
+    }
+}
@@ -0,0 +1,143 @@
+package com.recipes.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeFacets;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size and TTL bounded cache of GET /recipe pages keyed on the normalised search filters, plus the exact totals and
+ * facet counts of those filters so every page of a search reuses the ones computed for the first. Every key carries the write generation read
+ * before the search ran, and each recipe write bumps the generation, so results computed before a write are never
+ * served after it, even when they are stored after the write committed.
+ */
+@Component
+public class RecipeSearchCache {
+
+    private static final String CACHE_NAME = "recipeSearches";
+    private static final String COUNT_CACHE_NAME = "recipeSearchCounts";
+    private static final String FACETS_CACHE_NAME = "recipeSearchFacets";
+
+    private final Cache<Key, PaginatedRecipeResponse> searches;
+    private final Cache<Filters, Long> counts;
+    private final Cache<Filters, RecipeFacets> facets;
+    private final AtomicLong generation = new AtomicLong();
+
+    public record Filters(long generation, String recipeType, List<String> includedIngredients,
+                          List<String> excludedIngredients, List<Long> includedIngredientIds,
+                          List<Long> excludedIngredientIds, String instructionKeyword, Integer servings) {
+    }
+
+    public record Key(Filters filters, int pageNumber, int pageSize, Sort sort, CountMode countMode, boolean facets) {
+    }
+
+    public RecipeSearchCache(@Value("${recipes.cache.recipe-search.maximum-size:1000}") long maximumSize,
+                             @Value("${recipes.cache.recipe-search.ttl:1m}") Duration ttl) {
+        this.searches = buildCache(maximumSize, ttl, CACHE_NAME);
+        this.counts = buildCache(maximumSize, ttl, COUNT_CACHE_NAME);
+        this.facets = buildCache(maximumSize, ttl, FACETS_CACHE_NAME);
+    }
+
+    private static <K, V> Cache<K, V> buildCache(long maximumSize, Duration ttl, String cacheName) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, cacheName);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("The ratio of cache requests which were hits")
+                .tag("cache", cacheName)
+                .register(Metrics.globalRegistry);
+        return cache;
+    }
+
+    /**
+     * Normalises the filters of a search under the current write generation. The ingredient name lists must already
+     * be normalised and the ids resolved from them, all are sorted and deduplicated here since their order does not
+     * change the result. The names stay in the key so a filter on unknown names differs from no filter.
+     */
+    public Filters filters(String recipeType, List<String> includedIngredients, List<String> excludedIngredients,
+                           Collection<Long> includedIngredientIds, Collection<Long> excludedIngredientIds,
+                           String instructionKeyword, Integer servings) {
+        return new Filters(generation.get(), recipeType,
+                includedIngredients.stream().sorted().distinct().toList(),
+                excludedIngredients.stream().sorted().distinct().toList(),
+                includedIngredientIds.stream().sorted().distinct().toList(),
+                excludedIngredientIds.stream().sorted().distinct().toList(),
+                instructionKeyword, servings);
+    }
+
+    public Key key(Filters filters, Pageable pageable, CountMode countMode, boolean facets) {
+        return new Key(filters, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), countMode, facets);
+    }
+
+    public Optional<PaginatedRecipeResponse> get(Key key) {
+        return Optional.ofNullable(searches.getIfPresent(key));
+    }
+
+    public void put(Key key, PaginatedRecipeResponse response) {
+        searches.put(key, response);
+    }
+
+    public Optional<Long> getCount(Filters filters) {
+        return Optional.ofNullable(counts.getIfPresent(filters));
+    }
+
+    public void putCount(Filters filters, long count) {
+        counts.put(filters, count);
+    }
+
+    public Optional<RecipeFacets> getFacets(Filters filters) {
+        return Optional.ofNullable(facets.getIfPresent(filters));
+    }
+
+    public void putFacets(Filters filters, RecipeFacets recipeFacets) {
+        facets.put(filters, recipeFacets);
+    }
+
+    /**
+     * Moves to a new generation now and, inside a transaction, once more after commit so a search racing with the
+     * write cannot be served under the generation of the committed data.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public CacheStats getStats() {
+        return searches.stats();
+    }
+
+    public CacheStats getCountStats() {
+        return counts.stats();
+    }
+
+    public CacheStats getFacetsStats() {
+        return facets.stats();
+    }
+}
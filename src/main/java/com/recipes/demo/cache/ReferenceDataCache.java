@@ -0,0 +1,188 @@
+package com.recipes.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.recipes.demo.repository.IngredientRepository;
+import com.recipes.demo.repository.IngredientTypeRepository;
+import com.recipes.demo.repository.MeasurementUnitRepository;
+import com.recipes.demo.repository.RecipeJdbcRepository;
+import com.recipes.demo.repository.entity.Ingredient;
+import com.recipes.demo.repository.entity.IngredientType;
+import com.recipes.demo.repository.entity.MeasurementUnit;
+import com.recipes.demo.util.RecipeUtil;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache for the reference tables seeded by Flyway (ingredients, ingredient types and measurement units).
+ * The tables are preloaded once the application is ready, misses are loaded in bulk from MySQL, and
+ * entries are only refreshed through the explicit invalidation methods. Misses of the write path lookups are loaded
+ * together in one statement on the caller's connection. Ingredient ids are also cached by normalised name for the
+ * search filters.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final IngredientRepository ingredientRepository;
+    private final MeasurementUnitRepository measurementUnitRepository;
+    private final IngredientTypeRepository ingredientTypeRepository;
+    private final RecipeJdbcRepository recipeJdbcRepository;
+    private final Cache<Long, Ingredient> ingredients;
+    private final Cache<Long, MeasurementUnit> measurementUnits;
+    private final Cache<Long, IngredientType> ingredientTypes;
+    private final Cache<String, Long> ingredientIdsByName;
+
+    public record ReferenceData(Map<Long, Ingredient> ingredients, Set<Long> measurementUnitIds) {
+    }
+
+    public ReferenceDataCache(IngredientRepository ingredientRepository,
+                              MeasurementUnitRepository measurementUnitRepository,
+                              IngredientTypeRepository ingredientTypeRepository,
+                              RecipeJdbcRepository recipeJdbcRepository,
+                              @Value("${recipes.cache.reference-data.maximum-size:1000}") long maximumSize) {
+        this.ingredientRepository = ingredientRepository;
+        this.measurementUnitRepository = measurementUnitRepository;
+        this.ingredientTypeRepository = ingredientTypeRepository;
+        this.recipeJdbcRepository = recipeJdbcRepository;
+        this.ingredients = buildCache(maximumSize, "ingredients");
+        this.measurementUnits = buildCache(maximumSize, "measurementUnits");
+        this.ingredientTypes = buildCache(maximumSize, "ingredientTypes");
+        this.ingredientIdsByName = buildCache(maximumSize, "ingredientIdsByName");
+    }
+
+    private static <K, V> Cache<K, V> buildCache(long maximumSize, String cacheName) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, cacheName);
+        return cache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        List<Ingredient> allIngredients = ingredientRepository.findAll();
+        ingredients.putAll(allIngredients.stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity())));
+        allIngredients.forEach(ingredient ->
+                ingredientIdsByName.put(RecipeUtil.normalizeIngredientName(ingredient.getName()), ingredient.getId()));
+        measurementUnits.putAll(measurementUnitRepository.findAll().stream()
+                .collect(Collectors.toMap(MeasurementUnit::getId, Function.identity())));
+        ingredientTypes.putAll(ingredientTypeRepository.findAll().stream()
+                .collect(Collectors.toMap(IngredientType::getId, Function.identity())));
+        log.info("Reference data cache loaded: {} ingredients, {} measurement units, {} ingredient types",
+                ingredients.estimatedSize(), measurementUnits.estimatedSize(), ingredientTypes.estimatedSize());
+    }
+
+    public List<Ingredient> getIngredients(Set<Long> ingredientIds) {
+        return new ArrayList<>(ingredients.getAll(ingredientIds, this::loadIngredients).values());
+    }
+
+    /**
+     * Resolves ingredient names to ids ignoring case and surrounding blanks. Cached names are answered from memory
+     * and the others are read in one query on the indexed ingredient.normalized_name column. Unknown names are
+     * left out.
+     */
+    public Set<Long> getIngredientIdsByName(Collection<String> ingredientNames) {
+        Set<String> normalizedNames = ingredientNames.stream()
+                .map(RecipeUtil::normalizeIngredientName)
+                .collect(Collectors.toSet());
+        return new HashSet<>(ingredientIdsByName.getAll(normalizedNames, this::loadIngredientIdsByName).values());
+    }
+
+    /**
+     * Resolves the ingredients and measurement units of a write. Cached ids are answered from memory and the misses
+     * of both kinds are read together in one statement, which joins the caller's transaction instead of borrowing
+     * another connection. Unknown ids are left out and not cached.
+     */
+    public ReferenceData getReferenceData(Set<Long> ingredientIds, Set<Long> measurementUnitIds) {
+        Map<Long, Ingredient> knownIngredients = new HashMap<>(ingredients.getAllPresent(ingredientIds));
+        Map<Long, MeasurementUnit> knownMeasurementUnits = new HashMap<>(measurementUnits.getAllPresent(measurementUnitIds));
+        Set<Long> missingIngredientIds = new HashSet<>(ingredientIds);
+        missingIngredientIds.removeAll(knownIngredients.keySet());
+        Set<Long> missingMeasurementUnitIds = new HashSet<>(measurementUnitIds);
+        missingMeasurementUnitIds.removeAll(knownMeasurementUnits.keySet());
+        if (!missingIngredientIds.isEmpty() || !missingMeasurementUnitIds.isEmpty()) {
+            RecipeJdbcRepository.ReferenceDataRows rows = recipeJdbcRepository.findReferenceData(missingIngredientIds,
+                    missingMeasurementUnitIds);
+            rows.ingredients().forEach(ingredient -> {
+                ingredients.put(ingredient.getId(), ingredient);
+                knownIngredients.put(ingredient.getId(), ingredient);
+            });
+            rows.measurementUnits().forEach(measurementUnit -> {
+                measurementUnits.put(measurementUnit.getId(), measurementUnit);
+                knownMeasurementUnits.put(measurementUnit.getId(), measurementUnit);
+            });
+        }
+        return new ReferenceData(knownIngredients, knownMeasurementUnits.keySet());
+    }
+
+    public List<MeasurementUnit> getMeasurementUnits(Set<Long> measurementUnitIds) {
+        return new ArrayList<>(measurementUnits.getAll(measurementUnitIds, this::loadMeasurementUnits).values());
+    }
+
+    public Optional<IngredientType> getIngredientType(Long ingredientTypeId) {
+        return Optional.ofNullable(ingredientTypes.get(ingredientTypeId,
+                id -> ingredientTypeRepository.findById(id).orElse(null)));
+    }
+
+    public void invalidateIngredient(Long ingredientId) {
+        ingredients.invalidate(ingredientId);
+        ingredientIdsByName.asMap().values().removeIf(ingredientId::equals);
+    }
+
+    public void invalidateMeasurementUnit(Long measurementUnitId) {
+        measurementUnits.invalidate(measurementUnitId);
+    }
+
+    public void invalidateAll() {
+        ingredients.invalidateAll();
+        measurementUnits.invalidateAll();
+        ingredientTypes.invalidateAll();
+        ingredientIdsByName.invalidateAll();
+    }
+
+    public CacheStats getIngredientStats() {
+        return ingredients.stats();
+    }
+
+    public CacheStats getMeasurementUnitStats() {
+        return measurementUnits.stats();
+    }
+
+    public CacheStats getIngredientTypeStats() {
+        return ingredientTypes.stats();
+    }
+
+    public CacheStats getIngredientIdsByNameStats() {
+        return ingredientIdsByName.stats();
+    }
+
+    private Map<Long, Ingredient> loadIngredients(Set<? extends Long> ingredientIds) {
+        return ingredientRepository.findByIdIn(new HashSet<>(ingredientIds)).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+    }
+
+    private Map<String, Long> loadIngredientIdsByName(Set<? extends String> normalizedNames) {
+        List<Ingredient> loaded = ingredientRepository.findByNormalizedNameIn(new HashSet<>(normalizedNames));
+        loaded.forEach(ingredient -> ingredients.put(ingredient.getId(), ingredient));
+        return loaded.stream().collect(Collectors.toMap(ingredient -> RecipeUtil.normalizeIngredientName(ingredient.getName()),
+                Ingredient::getId, (first, second) -> first));
+    }
+
+    private Map<Long, MeasurementUnit> loadMeasurementUnits(Set<? extends Long> measurementUnitIds) {
+        return measurementUnitRepository.findByIdIn(new HashSet<>(measurementUnitIds)).stream()
+                .collect(Collectors.toMap(MeasurementUnit::getId, Function.identity()));
+    }
+}
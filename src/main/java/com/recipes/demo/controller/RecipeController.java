@@ -1,9 +1,14 @@
 package com.recipes.demo.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.recipes.demo.exception.ErrorInfo;
 import com.recipes.demo.exception.RecipeException;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.CountMode;
 import com.recipes.demo.model.PaginatedRecipeResponse;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.endpoint.RecipePatchRequest;
 import com.recipes.demo.model.endpoint.RecipeRequest;
 import com.recipes.demo.service.IRecipeService;
 import com.recipes.demo.util.RecipeUtil;
@@ -18,28 +23,40 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.Size;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 import static com.recipes.demo.util.RecipeUtil.MAXIMUM_NUMBER_INGREDIENTS_FILTER;
 
 @OpenAPIDefinition(info = @Info(title = "Recipe API", version = "1.0"))
 @Tag(name = "Recipe", description = "Recipe operations")
 @RestController
+@Profile("!reactive")
 @RequestMapping("/recipe")
 public class RecipeController {
 
     private final IRecipeService recipeService;
+    private final ObjectMapper objectMapper;
 
-    public RecipeController(IRecipeService recipeService) {
+    public RecipeController(IRecipeService recipeService, ObjectMapper objectMapper) {
         this.recipeService = recipeService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Get recipe list")
@@ -54,9 +71,8 @@ public class RecipeController {
                     content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
             )
     })
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public PaginatedRecipeResponse getRecipes(@PageableDefault(size = 20)
+    public ResponseEntity<PaginatedRecipeResponse> getRecipes(@PageableDefault(size = 20)
                                               @SortDefault.SortDefaults({
                                                       @SortDefault(sort = "name", direction = Sort.Direction.DESC),
                                                       @SortDefault(sort = "id", direction = Sort.Direction.ASC)
@@ -80,16 +96,44 @@ public class RecipeController {
                                               @RequestParam List<String> excludedIngredients,
 
                                               @Parameter(
-                                                      description = "Filter recipes which have the text in the instructions"
+                                                      description = "Filter recipes whose name or instructions contain a word starting " +
+                                                              "with each word of the text, use sort=relevance to rank them by relevance. " +
+                                                              "Words shorter than 3 letters or digits are ignored, a text without a " +
+                                                              "longer word is rejected with 400"
                                               )
                                               @Nullable @RequestParam String instructionKeyword,
                                               @Parameter(
                                                       description = "Filter recipes which have servings number"
                                               )
-                                              @Nullable @RequestParam Integer servings
+                                              @Nullable @RequestParam Integer servings,
+                                              @Parameter(
+                                                      description = "Keyset pagination cursor returned as nextCursor, send it empty to " +
+                                                              "start from the first page. Uses the default sort, a different sort is rejected with 400, " +
+                                                              "and skips the total count",
+                                                      allowEmptyValue = true
+                                              )
+                                              @Nullable @RequestParam String after,
+                                              @Parameter(
+                                                      description = "How to fill totalElements and totalPages: NONE skips the " +
+                                                              "count, EXACT counts every match and ESTIMATE may return an upper " +
+                                                              "bound, flagged by totalElementsEstimated, when filtering by keyword"
+                                              )
+                                              @RequestParam(defaultValue = "EXACT") CountMode count,
+                                              @Parameter(
+                                                      description = "Add the counts of the whole filtered result by recipe " +
+                                                              "type, servings number and top ingredients, ignored with after"
+                                              )
+                                              @RequestParam(defaultValue = "false") boolean facets
     ) throws RecipeException {
-        return this.recipeService.getRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients, instructionKeyword,
-                servings);
+        PaginatedRecipeResponse response = after != null
+                ? this.recipeService.getRecipesAfter(after, pageable.getPageSize(), pageable.getSort(), isVegetarian,
+                includedIngredients, excludedIngredients, instructionKeyword, servings)
+                : this.recipeService.getRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients,
+                instructionKeyword, servings, count, facets);
+        // A matching If-None-Match turns this into a 304 without a body
+        return ResponseEntity.ok()
+                .eTag(RecipeUtil.getRecipePageETag(response))
+                .body(response);
     }
 
 
@@ -111,6 +155,21 @@ public class RecipeController {
         return this.recipeService.saveRecipe(RecipeUtil.getRecipeDTO(recipeRequest));
     }
 
+    @Operation(summary = "Import a list of recipes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per recipe import result",
+                    content = {@Content(schema = @Schema(implementation = BulkRecipeResponse.class))}
+            ),
+            @ApiResponse(responseCode = "400", description = "Too many recipes in the request",
+                    content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
+            )
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkRecipeResponse importRecipes(@RequestBody List<RecipeRequest> recipeRequests) throws RecipeException {
+        return this.recipeService.importRecipes(recipeRequests.stream().map(RecipeUtil::getRecipeDTO).toList());
+    }
+
     @Operation(summary = "Update a recipe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updated recipe",
@@ -129,6 +188,26 @@ public class RecipeController {
         return this.recipeService.updateRecipe(recipeId, RecipeUtil.getRecipeDTO(recipeRequest));
     }
 
+    @Operation(summary = "Partially update a recipe")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updated recipe",
+                    content = {@Content(schema = @Schema(implementation = RecipeDTO.class))}
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid recipe",
+                    content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
+            ),
+            @ApiResponse(responseCode = "404", description = "Recipe, ingredients or measurements were not found",
+                    content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
+            )
+    })
+    @PatchMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = {RecipeUtil.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public RecipeDTO patch(@Parameter(description = "Recipe Id")
+                           @PathVariable("id") final Long recipeId,
+                           @RequestBody RecipePatchRequest recipePatchRequest) throws RecipeException {
+        return this.recipeService.patchRecipe(recipeId, RecipeUtil.getRecipePatchDTO(recipePatchRequest));
+    }
+
     @Operation(summary = "Delete a recipe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Deleted recipe"),
@@ -143,18 +222,71 @@ public class RecipeController {
         this.recipeService.deleteRecipe(recipeId);
     }
 
+    @Operation(summary = "Export every recipe as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Recipe stream, one recipe per line")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(outputStream);
+            this.recipeService.exportRecipes(recipe -> {
+                try {
+                    bufferedOutputStream.write(this.objectMapper.writeValueAsBytes(recipe));
+                    bufferedOutputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            bufferedOutputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Get several recipes by id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per id result in request order",
+                    content = {@Content(schema = @Schema(implementation = BatchRecipeResponse.class))}
+            ),
+            @ApiResponse(responseCode = "400", description = "Too many ids in the request",
+                    content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
+            )
+    })
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public BatchRecipeResponse getRecipesByIds(@Parameter(description = "Recipe ids, at most 500")
+                                               @RequestParam List<Long> ids) throws RecipeException {
+        return this.recipeService.getRecipesByIds(ids);
+    }
+
     @Operation(summary = "Get a recipe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Get recipe successfully"),
+            @ApiResponse(responseCode = "304", description = "Recipe not modified since the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Recipe were not found",
                     content = {@Content(schema = @Schema(implementation = ErrorInfo.class))}
             )
     })
-    @ResponseStatus(HttpStatus.OK)
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public RecipeDTO getRecipeById(@Parameter(description = "Recipe Id")
-                                   @PathVariable("id") final Long recipeId) throws RecipeException {
-        return this.recipeService.getRecipeById(recipeId);
+    public ResponseEntity<RecipeDTO> getRecipeById(@Parameter(description = "Recipe Id")
+                                                   @PathVariable("id") final Long recipeId,
+                                                   WebRequest webRequest) throws RecipeException {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> eTag = this.recipeService.getRecipeUpdatedDate(recipeId)
+                    .map(updatedDate -> RecipeUtil.getRecipeETag(recipeId, updatedDate));
+            if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+                // The 304 status and ETag header are already set
+                return null;
+            }
+        }
+        RecipeDTO recipeDTO = this.recipeService.getRecipeById(recipeId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (recipeDTO.getUpdatedDate() != null) {
+            response.eTag(RecipeUtil.getRecipeETag(recipeId, recipeDTO.getUpdatedDate()));
+        }
+        return response.body(recipeDTO);
     }
 
 }
@@ -0,0 +1,82 @@
+package com.recipes.demo.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured DataSource with a primary pool, configured with the usual spring.datasource
+ * properties, and, once recipes.datasource.replica.url is set, a replica pool behind a
+ * {@link ReadWriteRoutingDataSource}. The replica pool takes its Hikari settings from recipes.datasource.replica.hikari
+ * and reuses the primary credentials unless its own are given.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final String REPLICA_PREFIX = "recipes.datasource.replica";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = REPLICA_PREFIX, name = "url")
+    @ConfigurationProperties(REPLICA_PREFIX + ".hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${" + REPLICA_PREFIX + ".url}") String url,
+                                              @Value("${" + REPLICA_PREFIX + ".username:${spring.datasource.username}}") String username,
+                                              @Value("${" + REPLICA_PREFIX + ".password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The lazy proxy defers fetching the physical connection to the first statement. The routing needs it to see the
+     * read-only flag, which is set after the transaction begins, and transactions that run no statement, such as
+     * recipe cache hits, never borrow a pooled connection at all.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        return new LazyConnectionDataSourceProxy(replica == null
+                ? primaryDataSource
+                : new ReadWriteRoutingDataSource(primaryDataSource, replica));
+    }
+
+    /**
+     * Servlet stack only, the pinning is thread bound and WebFlux requests hop threads.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = REPLICA_PREFIX, name = "url")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${" + REPLICA_PREFIX + ".read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,76 @@
+package com.recipes.demo.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Marks the client of every write request with a cookie holding the write time, and pins the requests of that client
+ * to the primary until the cookie is older than the window, so a client never reads its own write back from a
+ * lagging replica. Other clients keep reading from the replica.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String LAST_WRITE_COOKIE = "recipes-last-write";
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = clock.millis();
+        if (isWrite(request)) {
+            Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(now));
+            cookie.setMaxAge(Math.toIntExact(window.toSeconds()));
+            cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        boolean pinned = isWrite(request) || wroteWithinWindow(request, now);
+        if (pinned) {
+            ReadWriteRoutingDataSource.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (pinned) {
+                ReadWriteRoutingDataSource.unpin();
+            }
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return !HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method) && !HttpMethod.OPTIONS.equals(method);
+    }
+
+    private boolean wroteWithinWindow(HttpServletRequest request, long now) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        return Arrays.stream(request.getCookies())
+                .filter(cookie -> LAST_WRITE_COOKIE.equals(cookie.getName()))
+                .anyMatch(cookie -> {
+                    try {
+                        return now - Long.parseLong(cookie.getValue()) < window.toMillis();
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                });
+    }
+}
@@ -0,0 +1,78 @@
+package com.recipes.demo.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the recipe caches consistent with the read routing. A request pinned to the primary by
+ * {@link ReadYourWritesFilter} neither reads nor fills the caches, whose entries may come from a lagging replica, and
+ * while a replica is configured a read started within the read-your-writes window after a committed write of this
+ * instance is not cached, since the replica may not have applied that write yet.
+ */
+@Component
+public class ReplicaCacheGuard {
+
+    private final boolean replicaConfigured;
+    private final long windowMillis;
+    private final Clock clock;
+    private final AtomicLong lastCommittedWrite = new AtomicLong(Long.MIN_VALUE / 2);
+
+    @Autowired
+    public ReplicaCacheGuard(@Value("${recipes.datasource.replica.url:}") String replicaUrl,
+                             @Value("${recipes.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this(!replicaUrl.isBlank(), window, Clock.systemUTC());
+    }
+
+    public ReplicaCacheGuard(boolean replicaConfigured, Duration window, Clock clock) {
+        this.replicaConfigured = replicaConfigured;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Whether the current request may be served from the caches.
+     */
+    public boolean canReadCache() {
+        return !ReadWriteRoutingDataSource.isPinnedToPrimary();
+    }
+
+    /**
+     * Marks the start of a database read, to be passed to {@link #canCache(long)} once its result is built.
+     */
+    public long startRead() {
+        return clock.millis();
+    }
+
+    /**
+     * Whether the result of a read started at the given time may be put in the caches.
+     */
+    public boolean canCache(long readStart) {
+        if (ReadWriteRoutingDataSource.isPinnedToPrimary()) {
+            return false;
+        }
+        return !replicaConfigured || readStart - lastCommittedWrite.get() >= windowMillis;
+    }
+
+    /**
+     * Records a write now and again when the current transaction commits, so reads racing the commit are not cached
+     * either.
+     */
+    public void recordWrite() {
+        lastCommittedWrite.set(clock.millis());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastCommittedWrite.set(clock.millis());
+                }
+            });
+        }
+    }
+}
@@ -5,7 +5,8 @@ public enum ErrorCode {
     RECIPE_NOT_FOUND_CODE("001"),
     INGREDIENT_NOT_FOUND_CODE("002"),
     MEASUREMENT_UNIT_NOT_FOUND_CODE("003"),
-    RECIPE_BAD_REQUEST("004");
+    RECIPE_BAD_REQUEST("004"),
+    RECIPE_NOT_STORED_CODE("005");
 
     private final String code;
 
@@ -1,6 +1,8 @@
 package com.recipes.demo.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -17,6 +19,7 @@ import java.util.List;
 
 @Slf4j
 @ControllerAdvice
+@Profile("!reactive")
 public class RecipeExceptionHandler extends ResponseEntityExceptionHandler {
 
     @ExceptionHandler(value = {RecipeNotFoundException.class, IngredientNotFoundException.class})
@@ -33,6 +36,13 @@ public class RecipeExceptionHandler extends ResponseEntityExceptionHandler {
                 new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
     }
 
+    @ExceptionHandler(value = {TaskRejectedException.class})
+    protected ResponseEntity<Object> handlerTaskRejectedException(TaskRejectedException ex, WebRequest request) {
+        this.logger.warn(ex.toString());
+        return handleExceptionInternal(ex, new ErrorInfo("Service Unavailable", "Too many async requests, retry later"),
+                new HttpHeaders(), HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
     @ExceptionHandler(value = {RuntimeException.class})
     protected ResponseEntity<Object> handlerGeneralException(RuntimeException ex, WebRequest request) {
         this.logger.warn(ex.toString());
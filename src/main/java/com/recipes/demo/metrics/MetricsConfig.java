@@ -0,0 +1,49 @@
+package com.recipes.demo.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    public static final String DATA_SOURCE_NAME = "recipes";
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    /**
+     * Enables {@link io.micrometer.core.annotation.Timed} on Spring beans such as the recipe service.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Wraps the application DataSource in a datasource-proxy that records every statement in the thread's
+     * {@link SqlStatementScope}, opened per request by {@link SqlStatementMetricsFilter}. The Hikari pool stays reachable through unwrap,
+     * so its pool gauges are still bound. Only the dataSource bean is wrapped, so the primary and replica pools behind
+     * the read/write routing do not count their statements twice.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && DATA_SOURCE_BEAN_NAME.equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(DATA_SOURCE_NAME)
+                            .listener(new SqlStatementListener())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
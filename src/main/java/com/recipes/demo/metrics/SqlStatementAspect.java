@@ -0,0 +1,35 @@
+package com.recipes.demo.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes statements of service calls made outside an HTTP request, such as the streamed export running on
+ * an async thread, to a scope named after the service method.
+ */
+@Aspect
+@Component
+public class SqlStatementAspect {
+
+    private final SqlStatementBudget sqlStatementBudget;
+
+    public SqlStatementAspect(SqlStatementBudget sqlStatementBudget) {
+        this.sqlStatementBudget = sqlStatementBudget;
+    }
+
+    @Around("execution(* com.recipes.demo.service.IRecipeService+.*(..))")
+    public Object recordServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (SqlStatementScope.current().isPresent()) {
+            return joinPoint.proceed();
+        }
+        try (SqlStatementScope scope = SqlStatementScope.open(joinPoint.getSignature().toShortString())) {
+            try {
+                return joinPoint.proceed();
+            } finally {
+                sqlStatementBudget.check(scope);
+            }
+        }
+    }
+}
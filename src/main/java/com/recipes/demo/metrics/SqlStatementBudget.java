@@ -0,0 +1,42 @@
+package com.recipes.demo.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Logs requests and service calls that run more statements than the budget, or that repeat the same statement
+ * shape often enough to look like N+1 access.
+ */
+@Slf4j
+@Component
+public class SqlStatementBudget {
+
+    private final int maximumStatements;
+    private final int repeatedStatementThreshold;
+
+    public SqlStatementBudget(@Value("${recipes.sql.budget.maximum-statements:10}") int maximumStatements,
+                              @Value("${recipes.sql.budget.repeated-statement-threshold:3}") int repeatedStatementThreshold) {
+        this.maximumStatements = maximumStatements;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    /**
+     * Returns true when the scope stayed within the budget and repeated no statement shape.
+     */
+    public boolean check(SqlStatementScope scope) {
+        boolean withinBudget = true;
+        if (scope.getStatementCount() > maximumStatements) {
+            log.warn("SQL budget exceeded: {} ran {} statements, budget is {}",
+                    scope.getName(), scope.getStatementCount(), maximumStatements);
+            withinBudget = false;
+        }
+        for (Map.Entry<String, Integer> repeated : scope.getRepeatedStatements(repeatedStatementThreshold).entrySet()) {
+            log.warn("Possible N+1: {} ran {} times: {}", scope.getName(), repeated.getValue(), repeated.getKey());
+            withinBudget = false;
+        }
+        return withinBudget;
+    }
+}
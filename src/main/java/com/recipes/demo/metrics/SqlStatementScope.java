@@ -0,0 +1,117 @@
+package com.recipes.demo.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Statements executed on the current thread between {@link #open} and {@link #close}, grouped by statement
+ * shape (the SQL with whitespace collapsed and expanded bind lists folded), so repeated shapes point to N+1 access.
+ * Scopes nest, a statement is recorded in every open scope of the thread. Work handed to another thread through
+ * {@link #propagate} is recorded in the scopes of the submitting thread.
+ */
+public class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern BIND_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    private final String name;
+    private final SqlStatementScope parent;
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private int statementCount;
+
+    private SqlStatementScope(String name, SqlStatementScope parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    public static SqlStatementScope open(String name) {
+        SqlStatementScope scope = new SqlStatementScope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Optional<SqlStatementScope> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Records one executed statement in the current scope and its parents, a no-op when no scope is open.
+     */
+    static void recordStatement(String sql) {
+        String shape = toShape(sql);
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            synchronized (scope) {
+                scope.statementCounts.merge(shape, 1, Integer::sum);
+                scope.statementCount++;
+            }
+        }
+    }
+
+    /**
+     * Wraps a task so the statements it runs on another thread are recorded in the scope current when it was
+     * wrapped, usable as a Spring TaskDecorator.
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatementScope submitterScope = CURRENT.get();
+        if (submitterScope == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementScope previous = CURRENT.get();
+            CURRENT.set(submitterScope);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static String toShape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return BIND_LIST.matcher(shape).replaceAll("?");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    public synchronized Map<String, Integer> getStatementCounts() {
+        return Map.copyOf(statementCounts);
+    }
+
+    /**
+     * Returns the statement shapes executed at least {@code threshold} times in this scope.
+     */
+    public synchronized Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statementCounts.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
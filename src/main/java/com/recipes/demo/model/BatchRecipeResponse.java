@@ -0,0 +1,22 @@
+package com.recipes.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRecipeResponse {
+    private int found;
+    private int notFound;
+    private List<BatchRecipeResult> results;
+
+    public BatchRecipeResponse(List<BatchRecipeResult> results) {
+        this.results = results;
+        this.found = (int) results.stream().filter(result -> result.getStatus() == BatchRecipeResult.Status.FOUND).count();
+        this.notFound = results.size() - this.found;
+    }
+}
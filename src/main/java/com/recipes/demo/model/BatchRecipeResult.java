@@ -0,0 +1,23 @@
+package com.recipes.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.recipes.demo.exception.ErrorInfo;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchRecipeResult {
+
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+
+    private Long id;
+    private Status status;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private RecipeDTO recipe;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ErrorInfo error;
+}
@@ -0,0 +1,22 @@
+package com.recipes.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkRecipeResponse {
+    private int created;
+    private int failed;
+    private List<BulkRecipeResult> results;
+
+    public BulkRecipeResponse(List<BulkRecipeResult> results) {
+        this.results = results;
+        this.created = (int) results.stream().filter(result -> result.getStatus() == BulkRecipeResult.Status.CREATED).count();
+        this.failed = results.size() - this.created;
+    }
+}
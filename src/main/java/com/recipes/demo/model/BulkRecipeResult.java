@@ -0,0 +1,24 @@
+package com.recipes.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.recipes.demo.exception.ErrorInfo;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkRecipeResult {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    private int index;
+    private String name;
+    private Status status;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long id;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ErrorInfo error;
+}
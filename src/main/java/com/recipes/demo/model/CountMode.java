@@ -0,0 +1,11 @@
+package com.recipes.demo.model;
+
+/**
+ * How GET /recipe fills the total of a page: not at all, exactly, or with an in-memory estimate that may be an upper
+ * bound when a keyword filter is present.
+ */
+public enum CountMode {
+    NONE,
+    EXACT,
+    ESTIMATE
+}
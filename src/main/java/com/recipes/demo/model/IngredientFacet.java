@@ -0,0 +1,12 @@
+package com.recipes.demo.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class IngredientFacet {
+    private Long ingredientId;
+    private String ingredientName;
+    private long count;
+}
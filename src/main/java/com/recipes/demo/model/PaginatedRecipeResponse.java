@@ -1,9 +1,10 @@
 package com.recipes.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -14,22 +15,43 @@ public class PaginatedRecipeResponse {
     private List<RecipeDTO> content;
     private int pageNo;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalElementsEstimated;
     private boolean last;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private RecipeFacets facets;
 
-    public PaginatedRecipeResponse(Page<RecipeDTO> page) {
-        this.content = page.getContent();
-        this.pageNo = page.getPageable().getPageNumber();
-        this.pageSize = page.getSize();
-        this.totalElements = page.getTotalElements();
-        this.totalPages = page.getTotalPages();
-        this.last = page.isLast();
+    /**
+     * Builds a page from a slice and an optional total, the total fields stay empty when no count was asked for.
+     */
+    public PaginatedRecipeResponse(Slice<RecipeDTO> slice, Long totalElements, boolean totalElementsEstimated) {
+        this.content = slice.getContent();
+        this.pageNo = slice.getNumber();
+        this.pageSize = slice.getSize();
+        this.last = slice.isLast();
+        if (totalElements != null) {
+            this.totalElements = totalElements;
+            this.totalPages = slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize());
+            this.totalElementsEstimated = totalElementsEstimated ? Boolean.TRUE : null;
+        }
     }
 
     public PaginatedRecipeResponse(List<RecipeDTO> content) {
         this.content = content;
     }
+
+    public PaginatedRecipeResponse(List<RecipeDTO> content, int pageSize, String nextCursor) {
+        this.content = content;
+        this.pageSize = pageSize;
+        this.nextCursor = nextCursor;
+        this.last = nextCursor == null;
+    }
 }
 
 
@@ -0,0 +1,12 @@
+package com.recipes.demo.model;
+
+import lombok.Value;
+
+/**
+ * Position of the last recipe returned by a keyset page, following the default (name DESC, id ASC) sort.
+ */
+@Value
+public class RecipeCursor {
+    Long id;
+    String name;
+}
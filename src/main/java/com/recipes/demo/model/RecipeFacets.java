@@ -0,0 +1,18 @@
+package com.recipes.demo.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts of the whole filtered result set by recipe type, by servings number and for the most used ingredients.
+ */
+@Data
+@Builder
+public class RecipeFacets {
+    private Map<String, Long> recipeTypes;
+    private Map<Integer, Long> servings;
+    private List<IngredientFacet> ingredients;
+}
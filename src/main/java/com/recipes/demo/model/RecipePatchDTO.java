@@ -0,0 +1,18 @@
+package com.recipes.demo.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Fields to change on a recipe, null meaning unchanged.
+ */
+@Data
+@Builder
+public class RecipePatchDTO {
+    private String name;
+    private String instructions;
+    private Integer servingsNumber;
+    private List<IngredientRecipeDTO> ingredients;
+}
@@ -0,0 +1,27 @@
+package com.recipes.demo.model.endpoint;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+
+import static com.recipes.demo.util.RecipeUtil.MINIMUM_INGREDIENT_NUMBER;
+
+/**
+ * JSON Merge Patch body for PATCH /recipe/{id}. Missing or null members leave the recipe field untouched and a
+ * present ingredient list replaces the whole list, as merge patch does for arrays.
+ */
+@Value
+@NoArgsConstructor(force = true)
+public class RecipePatchRequest {
+
+    String name;
+    @Size(min = 1, max = 500, message = "Instructions must be maximum 500 characters.")
+    String instructions;
+    @Positive
+    Integer servingsNumber;
+    @Size(min = MINIMUM_INGREDIENT_NUMBER, message = "Recipe must has at least {} ingredient.")
+    List<RecipeIngredientRequest> ingredients;
+}
@@ -2,13 +2,20 @@ package com.recipes.demo.repository;
 
 import com.recipes.demo.repository.entity.IngredientRecipe;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface IngredientRecipeRepository extends JpaRepository<IngredientRecipe, Long> {
-    void deleteByRecipeId(Long productId);
+    @Modifying
+    @Query("DELETE FROM IngredientRecipe ingxrp WHERE ingxrp.recipeId = :recipeId")
+    void deleteByRecipeId(Long recipeId);
 
     List<IngredientRecipe> findByRecipeId(Long recipeId);
+
+    List<IngredientRecipe> findByRecipeIdIn(Collection<Long> recipeIds);
 }
@@ -11,4 +11,10 @@ import java.util.Set;
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
 
     List<Ingredient> findByIdIn(Set<Long> idList);
+
+    /**
+     * Looks names up on the indexed upper-cased and trimmed copy of ingredient.name, see
+     * {@link com.recipes.demo.util.RecipeUtil#normalizeIngredientName}.
+     */
+    List<Ingredient> findByNormalizedNameIn(Set<String> normalizedNameList);
 }
@@ -0,0 +1,9 @@
+package com.recipes.demo.repository;
+
+import com.recipes.demo.repository.entity.IngredientType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngredientTypeRepository extends JpaRepository<IngredientType, Long> {
+}
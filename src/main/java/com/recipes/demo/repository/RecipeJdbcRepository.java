@@ -0,0 +1,351 @@
+package com.recipes.demo.repository;
+
+import com.recipes.demo.repository.entity.Ingredient;
+import com.recipes.demo.repository.entity.IngredientRecipe;
+import com.recipes.demo.repository.entity.MeasurementUnit;
+import com.recipes.demo.repository.entity.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access for bulk operations. Hibernate cannot batch inserts of IDENTITY entities, so these
+ * statements go through {@link JdbcTemplate#batchUpdate} instead.
+ */
+@Slf4j
+@SuppressWarnings("SqlDialectInspection")
+@Repository
+public class RecipeJdbcRepository {
+
+    private static final String INSERT_RECIPE = """
+            INSERT INTO recipe (name, instructions, servings_number, recipe_type, creation_date, updated_date)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_INGREDIENT_RECIPE = """
+            INSERT INTO ingredient_recipe (recipe_id, ingredient_id, measurement_unit_id, quantity)
+            VALUES (?, ?, ?, ?)
+            """;
+    private static final String UPDATE_INGREDIENT_RECIPE = """
+            UPDATE ingredient_recipe SET measurement_unit_id = ?, quantity = ? WHERE id = ?
+            """;
+    private static final String DELETE_INGREDIENT_RECIPES = "DELETE FROM ingredient_recipe WHERE id IN (:ids)";
+    private static final String SELECT_RECIPE_IDS_BY_NAME = "SELECT id, name FROM recipe WHERE name IN (:names)";
+    private static final String SELECT_RECIPES_WITH_INGREDIENTS = """
+            SELECT rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+            ingxrp.ingredient_id, ingxrp.measurement_unit_id, ingxrp.quantity
+            FROM recipe as rp
+            LEFT JOIN ingredient_recipe as ingxrp on rp.id=ingxrp.recipe_id
+            ORDER BY rp.id
+            """;
+    private static final String UPSERT_RECIPE_SEARCH = """
+            INSERT INTO recipe_search (id, name, instructions, servings_number, recipe_type, creation_date, updated_date,
+            ingredient_ids)
+            SELECT rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+            JSON_ARRAYAGG(ingxrp.ingredient_id)
+            FROM recipe as rp
+            INNER JOIN ingredient_recipe as ingxrp on rp.id=ingxrp.recipe_id
+            WHERE rp.id IN (:recipeIds)
+            GROUP BY rp.id
+            ON DUPLICATE KEY UPDATE name = VALUES(name), instructions = VALUES(instructions),
+            servings_number = VALUES(servings_number), recipe_type = VALUES(recipe_type),
+            creation_date = VALUES(creation_date), updated_date = VALUES(updated_date),
+            ingredient_ids = VALUES(ingredient_ids)
+            """;
+    private static final String SELECT_INGREDIENT_REFERENCE = """
+            SELECT 'ingredient' AS kind, id, name, ingredient_type_id, normalized_name
+            FROM ingredient WHERE id IN (:ingredientIds)
+            """;
+    private static final String SELECT_MEASUREMENT_UNIT_REFERENCE = """
+            SELECT 'measurement_unit' AS kind, id, name, NULL, NULL
+            FROM measurement_unit WHERE id IN (:measurementUnitIds)
+            """;
+    private static final String INGREDIENT_KIND = "ingredient";
+    private static final String SELECT_INGREDIENT_RECIPE_IDS = "SELECT recipe_id, ingredient_id FROM ingredient_recipe";
+    private static final String SELECT_RECIPE_FILTER_ATTRIBUTES = "SELECT id, recipe_type, servings_number FROM recipe";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final int batchSize;
+    private final int exportFetchSize;
+
+    public RecipeJdbcRepository(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                @Value("${recipes.jdbc.batch-size:500}") int batchSize,
+                                @Value("${recipes.jdbc.export-fetch-size:" + Integer.MIN_VALUE + "}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.batchSize = batchSize;
+        this.exportFetchSize = exportFetchSize;
+    }
+
+    /**
+     * Inserts the recipes in JDBC batches and sets their ids from the generated keys. Each batch runs under a
+     * savepoint of the caller's transaction. When the database rejects a row of a batch, for instance on a name the
+     * unique index considers taken, the batch is rolled back and its recipes are inserted again one by one, each
+     * under its own savepoint, so only the rejected recipes are left without an id. Other database errors, such as a
+     * lost connection or a lock wait timeout, fail the whole call.
+     */
+    public void insertRecipes(List<Recipe> recipes) {
+        for (int from = 0; from < recipes.size(); from += batchSize) {
+            List<Recipe> chunk = recipes.subList(from, Math.min(from + batchSize, recipes.size()));
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) con -> insertRecipeChunk(con, chunk));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Rolled back a batch of {} recipes, inserting them one by one", chunk.size(), e);
+                chunk.forEach(recipe -> recipe.setId(null));
+                chunk.forEach(this::insertRecipe);
+            }
+        }
+    }
+
+    private void insertRecipe(Recipe recipe) {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) con -> insertRecipeChunk(con, List.of(recipe)));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Could not store recipe {}: {}", recipe.getName(), e.getMostSpecificCause().getMessage());
+            recipe.setId(null);
+        }
+    }
+
+    private static Void insertRecipeChunk(Connection con, List<Recipe> chunk) throws SQLException {
+        Savepoint savepoint = con.getAutoCommit() ? null : con.setSavepoint();
+        try (PreparedStatement ps = con.prepareStatement(INSERT_RECIPE, Statement.RETURN_GENERATED_KEYS)) {
+            for (Recipe recipe : chunk) {
+                ps.setString(1, recipe.getName());
+                ps.setString(2, recipe.getInstructions());
+                ps.setInt(3, recipe.getServingsNumber());
+                ps.setString(4, recipe.getRecipeType());
+                ps.setTimestamp(5, Timestamp.valueOf(recipe.getCreationDate()));
+                ps.setTimestamp(6, Timestamp.valueOf(recipe.getUpdatedDate()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                for (Recipe recipe : chunk) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Missing generated key for recipe " + recipe.getName());
+                    }
+                    recipe.setId(generatedKeys.getLong(1));
+                }
+            }
+        } catch (SQLException e) {
+            if (savepoint != null) {
+                con.rollback(savepoint);
+            }
+            throw e;
+        }
+        if (savepoint != null) {
+            con.releaseSavepoint(savepoint);
+        }
+        return null;
+    }
+
+    public void insertIngredientRecipes(List<IngredientRecipe> ingredientRecipes) {
+        jdbcTemplate.batchUpdate(INSERT_INGREDIENT_RECIPE, ingredientRecipes, batchSize, (ps, ingredientRecipe) -> {
+            ps.setLong(1, ingredientRecipe.getRecipeId());
+            ps.setLong(2, ingredientRecipe.getIngredientId());
+            ps.setLong(3, ingredientRecipe.getMeasurementUnitId());
+            ps.setFloat(4, ingredientRecipe.getQuantity());
+        });
+    }
+
+    public void updateIngredientRecipes(List<IngredientRecipe> ingredientRecipes) {
+        jdbcTemplate.batchUpdate(UPDATE_INGREDIENT_RECIPE, ingredientRecipes, batchSize, (ps, ingredientRecipe) -> {
+            ps.setLong(1, ingredientRecipe.getMeasurementUnitId());
+            ps.setFloat(2, ingredientRecipe.getQuantity());
+            ps.setLong(3, ingredientRecipe.getId());
+        });
+    }
+
+    public void deleteIngredientRecipes(Collection<Long> ingredientRecipeIds) {
+        namedParameterJdbcTemplate.update(DELETE_INGREDIENT_RECIPES, new MapSqlParameterSource("ids", ingredientRecipeIds));
+    }
+
+    /**
+     * Rewrites the recipe_search rows of the given recipes from recipe and ingredient_recipe. It runs on the
+     * caller's connection, so pending JPA changes must be flushed first and the rows commit with the recipe write.
+     * Deleted recipes need no call, their rows go with the ON DELETE CASCADE foreign key.
+     */
+    public void refreshRecipeSearch(Collection<Long> recipeIds) {
+        List<Long> ids = new ArrayList<>(recipeIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            namedParameterJdbcTemplate.update(UPSERT_RECIPE_SEARCH, new MapSqlParameterSource("recipeIds", chunk));
+        }
+    }
+
+    /**
+     * Reads the given ingredients and measurement units in a single UNION ALL statement on the caller's connection, so
+     * a write resolving its reference data needs no second pooled connection. Unknown ids are left out.
+     */
+    public ReferenceDataRows findReferenceData(Collection<Long> ingredientIds, Collection<Long> measurementUnitIds) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<MeasurementUnit> measurementUnits = new ArrayList<>();
+        List<String> selects = new ArrayList<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (!ingredientIds.isEmpty()) {
+            selects.add(SELECT_INGREDIENT_REFERENCE);
+            parameters.addValue("ingredientIds", ingredientIds);
+        }
+        if (!measurementUnitIds.isEmpty()) {
+            selects.add(SELECT_MEASUREMENT_UNIT_REFERENCE);
+            parameters.addValue("measurementUnitIds", measurementUnitIds);
+        }
+        if (selects.isEmpty()) {
+            return new ReferenceDataRows(ingredients, measurementUnits);
+        }
+        namedParameterJdbcTemplate.query(String.join("UNION ALL\n", selects), parameters, (RowCallbackHandler) rs -> {
+            if (INGREDIENT_KIND.equals(rs.getString("kind"))) {
+                ingredients.add(Ingredient.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .ingredientTypeId(rs.getLong("ingredient_type_id"))
+                        .normalizedName(rs.getString("normalized_name"))
+                        .build());
+            } else {
+                measurementUnits.add(MeasurementUnit.builder()
+                        .id(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .build());
+            }
+        });
+        return new ReferenceDataRows(ingredients, measurementUnits);
+    }
+
+    /**
+     * Returns the recipe ids keyed by {@link #normalizeName normalized} name. The IN list is compared under the column
+     * collation, so an accented name also finds the unaccented row.
+     */
+    public Map<String, Long> findIdsByName(Collection<String> names) {
+        Map<String, Long> idsByName = new HashMap<>();
+        if (names.isEmpty()) {
+            return idsByName;
+        }
+        namedParameterJdbcTemplate.query(SELECT_RECIPE_IDS_BY_NAME, new MapSqlParameterSource("names", names),
+                (RowCallbackHandler) rs -> idsByName.put(normalizeName(rs.getString("name")), rs.getLong("id")));
+        return idsByName;
+    }
+
+    /**
+     * Walks every recipe with its ingredient rows through a forward-only, read-only cursor, handing each recipe to the
+     * consumer as soon as its last row has been read. With Connector/J a fetch size of {@link Integer#MIN_VALUE}
+     * streams the result set row by row, so memory stays constant whatever the catalogue size.
+     */
+    public void streamRecipesWithIngredients(BiConsumer<Recipe, List<IngredientRecipe>> consumer) {
+        RecipeRowCallbackHandler rowCallbackHandler = new RecipeRowCallbackHandler(consumer);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_RECIPES_WITH_INGREDIENTS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, rowCallbackHandler);
+        rowCallbackHandler.flush();
+    }
+
+    /**
+     * Streams every (recipe id, ingredient id) pair with the same forward-only cursor as the export.
+     */
+    public void streamIngredientRecipeIds(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_INGREDIENT_RECIPE_IDS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getLong("recipe_id"), rs.getLong("ingredient_id")));
+    }
+
+    /**
+     * Streams the id, type and servings number of every recipe, the columns the search filters on besides
+     * ingredients and keywords, with the same forward-only cursor as the export.
+     */
+    public void streamRecipeFilterAttributes(Consumer<Recipe> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_RECIPE_FILTER_ATTRIBUTES,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(Recipe.builder()
+                .id(rs.getLong("id"))
+                .recipeType(rs.getString("recipe_type"))
+                .servingsNumber(rs.getInt("servings_number"))
+                .build()));
+    }
+
+    /**
+     * Folds a name the way the utf8mb3_general_ci collation of recipe.name compares it: trailing spaces, case and
+     * accents are ignored, so "Crème " and "creme" are the same name. The unique index stays the final judge of the
+     * few letters the collation folds differently.
+     */
+    public static String normalizeName(String name) {
+        return Normalizer.normalize(name.stripTrailing(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public record ReferenceDataRows(List<Ingredient> ingredients, List<MeasurementUnit> measurementUnits) {
+    }
+
+    private static class RecipeRowCallbackHandler implements RowCallbackHandler {
+
+        private final BiConsumer<Recipe, List<IngredientRecipe>> consumer;
+        private Recipe currentRecipe;
+        private List<IngredientRecipe> currentIngredients = new ArrayList<>();
+
+        RecipeRowCallbackHandler(BiConsumer<Recipe, List<IngredientRecipe>> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long recipeId = rs.getLong("id");
+            if (currentRecipe == null || currentRecipe.getId() != recipeId) {
+                flush();
+                Timestamp updatedDate = rs.getTimestamp("updated_date");
+                currentRecipe = Recipe.builder()
+                        .id(recipeId)
+                        .name(rs.getString("name"))
+                        .instructions(rs.getString("instructions"))
+                        .servingsNumber(rs.getInt("servings_number"))
+                        .recipeType(rs.getString("recipe_type"))
+                        .creationDate(rs.getTimestamp("creation_date").toLocalDateTime())
+                        .updatedDate(updatedDate == null ? null : updatedDate.toLocalDateTime())
+                        .build();
+            }
+            long ingredientId = rs.getLong("ingredient_id");
+            if (!rs.wasNull()) {
+                currentIngredients.add(IngredientRecipe.builder()
+                        .recipeId(recipeId)
+                        .ingredientId(ingredientId)
+                        .measurementUnitId(rs.getLong("measurement_unit_id"))
+                        .quantity(rs.getFloat("quantity"))
+                        .build());
+            }
+        }
+
+        void flush() {
+            if (currentRecipe != null) {
+                consumer.accept(currentRecipe, currentIngredients);
+                currentRecipe = null;
+                currentIngredients = new ArrayList<>();
+            }
+        }
+    }
+}
@@ -1,47 +1,195 @@
 package com.recipes.demo.repository;
 
 import com.recipes.demo.repository.entity.Recipe;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Searches read the recipe_search projection, which holds one row per recipe with its ingredient ids pre-aggregated
+ * as a JSON array, so none of the filters needs a join. Ingredient filters take ids the caller resolved from names
+ * up front, and the included ones are matched through the multi-valued index on the array. Optional filters are
+ * written as "(:parameter is unset OR predicate)" so that, with the parameters inlined by the driver, MySQL folds the
+ * unset ones away and can pick an index for the rest.
+ * Search pages are slices, the totals have their own count queries so the service decides when to run them.
+ */
 @SuppressWarnings("SqlDialectInspection")
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
 
     @Query(value = """
-            SELECT DISTINCT rp.id as id, rp.name, 
-            rp.instructions, 
-            rp.servings_number, 
-            rp.recipe_type,
-            rp.creation_date,
-            rp.updated_date
-            FROM recipe as rp
-            INNER JOIN ingredient_recipe as ingxrp on rp.id=ingxrp.recipe_id
-            INNER JOIN ingredient as ing on ing.id =ingxrp.ingredient_id
-            WHERE (:recipeType is null OR rp.recipe_type = :recipeType)
-            AND ( CASE 
-            WHEN :filterByIncludedIngredients=1
-            THEN UPPER(ing.name) IN :includedIngredients ELSE TRUE END)
-            AND  ( CASE 
-            WHEN :filterByExcludedIngredients=1
-            THEN rp.id NOT IN (SELECT ingxrp1.recipe_id from ingredient_recipe as ingxrp1 INNER JOIN ingredient as ing1\s
-                 on ing1.id =ingxrp1.ingredient_id WHERE UPPER(ing1.name) IN :excludedIngredients)
-            ELSE TRUE END)
-            AND (:instructionKeyWord is null OR rp.instructions like :instructionKeyWord)
-            AND (:servings is null OR rp.servings_number=:servings)
+            SELECT rs.id as id, rs.name,
+            rs.instructions,
+            rs.servings_number,
+            rs.recipe_type,
+            rs.creation_date,
+            rs.updated_date
+            FROM recipe_search as rs
+            WHERE (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:filterByIncludedIngredients=0 OR JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds)))
+            AND (:filterByExcludedIngredients=0 OR NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds)))
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
                     """, nativeQuery = true)
-    Page<Recipe> findAll(Pageable pageable,
-                         String recipeType,
-                         Boolean filterByIncludedIngredients,
-                         Boolean filterByExcludedIngredients,
-                         List<String> includedIngredients,
-                         List<String> excludedIngredients,
-                         String instructionKeyWord,
-                         Integer servings);
+    Slice<Recipe> findAll(Pageable pageable,
+                          String recipeType,
+                          Boolean filterByIncludedIngredients,
+                          Boolean filterByExcludedIngredients,
+                          List<Long> includedIngredientIds,
+                          List<Long> excludedIngredientIds,
+                          String instructionKeyWord,
+                          Integer servings);
 
+    @Query(value = """
+            SELECT rs.id as id, rs.name,
+            rs.instructions,
+            rs.servings_number,
+            rs.recipe_type,
+            rs.creation_date,
+            rs.updated_date
+            FROM recipe_search as rs
+            WHERE rs.id IN :recipeIds
+            AND (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
+                    """, nativeQuery = true)
+    Slice<Recipe> findAllByIdIn(Pageable pageable,
+                                List<Long> recipeIds,
+                                String recipeType,
+                                String instructionKeyWord,
+                                Integer servings);
+
+    @Query(value = """
+            SELECT rs.id as id, rs.name,
+            rs.instructions,
+            rs.servings_number,
+            rs.recipe_type,
+            rs.creation_date,
+            rs.updated_date,
+            MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE) as relevance
+            FROM recipe_search as rs
+            WHERE (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:filterByIncludedIngredients=0 OR JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds)))
+            AND (:filterByExcludedIngredients=0 OR NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds)))
+            AND MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE)
+            AND (:servings is null OR rs.servings_number=:servings)
+            ORDER BY relevance DESC, rs.id ASC
+                    """, nativeQuery = true)
+    Slice<Recipe> findAllByRelevance(Pageable pageable,
+                                     String recipeType,
+                                     Boolean filterByIncludedIngredients,
+                                     Boolean filterByExcludedIngredients,
+                                     List<Long> includedIngredientIds,
+                                     List<Long> excludedIngredientIds,
+                                     String instructionKeyWord,
+                                     Integer servings);
+
+    @Query(value = """
+            SELECT COUNT(*)
+            FROM recipe_search as rs
+            WHERE (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:filterByIncludedIngredients=0 OR JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds)))
+            AND (:filterByExcludedIngredients=0 OR NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds)))
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
+                    """, nativeQuery = true)
+    long countAll(String recipeType,
+                  Boolean filterByIncludedIngredients,
+                  Boolean filterByExcludedIngredients,
+                  List<Long> includedIngredientIds,
+                  List<Long> excludedIngredientIds,
+                  String instructionKeyWord,
+                  Integer servings);
+
+    /**
+     * One row per facet value of the filtered recipes: its facet (RECIPE_TYPE, SERVINGS or INGREDIENT), the value and
+     * the number of matching recipes. The filtered set is a common table expression, so the filters and the keyword
+     * match run once for all three groupings, and JSON_TABLE unnests the ingredient ids of each matching row.
+     */
+    @Query(value = """
+            WITH filtered AS (
+            SELECT rs.recipe_type, rs.servings_number, rs.ingredient_ids
+            FROM recipe_search as rs
+            WHERE (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:filterByIncludedIngredients=0 OR JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds)))
+            AND (:filterByExcludedIngredients=0 OR NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds)))
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
+            )
+            SELECT 'RECIPE_TYPE' as facet, f.recipe_type as facetValue, COUNT(*) as facetCount
+            FROM filtered as f GROUP BY f.recipe_type
+            UNION ALL
+            SELECT 'SERVINGS', CAST(f.servings_number AS CHAR), COUNT(*)
+            FROM filtered as f GROUP BY f.servings_number
+            UNION ALL
+            SELECT 'INGREDIENT', CAST(ing.ingredient_id AS CHAR), COUNT(*)
+            FROM filtered as f,
+            JSON_TABLE(f.ingredient_ids, '$[*]' COLUMNS (ingredient_id BIGINT PATH '$')) as ing
+            GROUP BY ing.ingredient_id
+                    """, nativeQuery = true)
+    List<FacetCount> countFacets(String recipeType,
+                                 Boolean filterByIncludedIngredients,
+                                 Boolean filterByExcludedIngredients,
+                                 List<Long> includedIngredientIds,
+                                 List<Long> excludedIngredientIds,
+                                 String instructionKeyWord,
+                                 Integer servings);
+
+    @Query(value = """
+            SELECT COUNT(*)
+            FROM recipe_search as rs
+            WHERE rs.id IN :recipeIds
+            AND (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
+                    """, nativeQuery = true)
+    long countAllByIdIn(List<Long> recipeIds,
+                        String recipeType,
+                        String instructionKeyWord,
+                        Integer servings);
+
+    @Query(value = """
+            SELECT rs.id as id, rs.name,
+            rs.instructions,
+            rs.servings_number,
+            rs.recipe_type,
+            rs.creation_date,
+            rs.updated_date
+            FROM recipe_search as rs
+            WHERE (:recipeType is null OR rs.recipe_type = :recipeType)
+            AND (:filterByIncludedIngredients=0 OR JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds)))
+            AND (:filterByExcludedIngredients=0 OR NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds)))
+            AND (:instructionKeyWord = '' OR MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyWord IN BOOLEAN MODE))
+            AND (:servings is null OR rs.servings_number=:servings)
+            AND (:afterName is null OR rs.name < :afterName OR (rs.name = :afterName AND rs.id > :afterId))
+            ORDER BY rs.name DESC, rs.id ASC
+            LIMIT :limit
+                    """, nativeQuery = true)
+    List<Recipe> findAllAfter(String afterName,
+                              Long afterId,
+                              int limit,
+                              String recipeType,
+                              Boolean filterByIncludedIngredients,
+                              Boolean filterByExcludedIngredients,
+                              List<Long> includedIngredientIds,
+                              List<Long> excludedIngredientIds,
+                              String instructionKeyWord,
+                              Integer servings);
+
+    @Query("SELECT rp.updatedDate FROM Recipe rp WHERE rp.id = :recipeId")
+    Optional<LocalDateTime> findUpdatedDateById(Long recipeId);
+
+    interface FacetCount {
+        String getFacet();
+
+        String getFacetValue();
+
+        long getFacetCount();
+    }
 }
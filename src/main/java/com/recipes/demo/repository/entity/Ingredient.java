@@ -18,5 +18,7 @@ public class Ingredient {
     private Long id;
     private String name;
     private Long ingredientTypeId;
+    @Column(insertable = false, updatable = false)
+    private String normalizedName;
 
 }
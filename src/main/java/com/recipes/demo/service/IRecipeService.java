@@ -2,12 +2,20 @@ package com.recipes.demo.service;
 
 import com.recipes.demo.exception.RecipeException;
 import com.recipes.demo.exception.RecipeNotFoundException;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.CountMode;
 import com.recipes.demo.model.PaginatedRecipeResponse;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipePatchDTO;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface IRecipeService {
     @Transactional
@@ -16,15 +24,43 @@ public interface IRecipeService {
     @Transactional
     RecipeDTO updateRecipe(Long recipeId, RecipeDTO recipeDTO) throws RecipeException;
 
+    @Transactional
+    RecipeDTO patchRecipe(Long recipeId, RecipePatchDTO recipePatchDTO) throws RecipeException;
+
+    @Transactional
+    BulkRecipeResponse importRecipes(List<RecipeDTO> recipeDTOs) throws RecipeException;
+
     @Transactional
     void deleteRecipe(Long recipeId) throws RecipeNotFoundException;
 
+    @Transactional(readOnly = true)
     PaginatedRecipeResponse getRecipes(Pageable pageable,
                                        Boolean isVegetarian,
                                        List<String> includedIngredients,
                                        List<String> excludedIngredients,
                                        String instructionKeyword,
-                                       Integer servings) throws RecipeException;
+                                       Integer servings,
+                                       CountMode countMode,
+                                       boolean facets) throws RecipeException;
 
+    @Transactional(readOnly = true)
+    PaginatedRecipeResponse getRecipesAfter(String after,
+                                            int size,
+                                            Sort sort,
+                                            Boolean isVegetarian,
+                                            List<String> includedIngredients,
+                                            List<String> excludedIngredients,
+                                            String instructionKeyword,
+                                            Integer servings) throws RecipeException;
+
+    @Transactional(readOnly = true)
     RecipeDTO getRecipeById(Long recipeId) throws RecipeNotFoundException;
+
+    @Transactional(readOnly = true)
+    Optional<LocalDateTime> getRecipeUpdatedDate(Long recipeId);
+
+    @Transactional(readOnly = true)
+    BatchRecipeResponse getRecipesByIds(List<Long> recipeIds) throws RecipeException;
+
+    void exportRecipes(Consumer<RecipeDTO> consumer);
 }
@@ -1,57 +1,109 @@
 package com.recipes.demo.service.impl;
 
+import com.recipes.demo.cache.RecipeCache;
+import com.recipes.demo.cache.RecipeIngredientIndex;
+import com.recipes.demo.cache.RecipeSearchCache;
+import com.recipes.demo.cache.ReferenceDataCache;
+import com.recipes.demo.datasource.ReplicaCacheGuard;
 import com.recipes.demo.exception.*;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BatchRecipeResult;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResult;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.IngredientFacet;
 import com.recipes.demo.model.IngredientRecipeDTO;
 import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeCursor;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipeFacets;
+import com.recipes.demo.model.RecipePatchDTO;
 import com.recipes.demo.model.RecipeType;
 import com.recipes.demo.repository.IngredientRecipeRepository;
-import com.recipes.demo.repository.IngredientRepository;
-import com.recipes.demo.repository.MeasurementUnitRepository;
+import com.recipes.demo.repository.RecipeJdbcRepository;
 import com.recipes.demo.repository.RecipeRepository;
 import com.recipes.demo.repository.entity.Ingredient;
 import com.recipes.demo.repository.entity.IngredientRecipe;
-import com.recipes.demo.repository.entity.MeasurementUnit;
 import com.recipes.demo.repository.entity.Recipe;
 import com.recipes.demo.service.IRecipeService;
 import com.recipes.demo.util.RecipeUtil;
+import io.micrometer.core.annotation.Timed;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.data.domain.Page;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.recipes.demo.util.RecipeUtil.*;
 
 @Service
+@Timed(value = "recipes.service", percentiles = {0.5, 0.95, 0.99}, histogram = true)
 public class RecipeService implements IRecipeService {
 
     private final RecipeRepository recipeRepository;
     private final IngredientRecipeRepository ingredientRecipeRepository;
-    private final IngredientRepository ingredientRepository;
-    private final MeasurementUnitRepository measurementUnitRepository;
-
-    public RecipeService(RecipeRepository recipeRepository, IngredientRecipeRepository ingredientRecipeRepository, IngredientRepository ingredientRepository, MeasurementUnitRepository measurementUnitRepository) {
+    private final ReferenceDataCache referenceDataCache;
+    private final RecipeCache recipeCache;
+    private final RecipeSearchCache recipeSearchCache;
+    private final RecipeJdbcRepository recipeJdbcRepository;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final int maximumIndexCandidates;
+    private final ReplicaCacheGuard replicaCacheGuard;
+
+    public RecipeService(RecipeRepository recipeRepository,
+                         IngredientRecipeRepository ingredientRecipeRepository,
+                         ReferenceDataCache referenceDataCache,
+                         RecipeCache recipeCache,
+                         RecipeSearchCache recipeSearchCache,
+                         RecipeJdbcRepository recipeJdbcRepository,
+                         RecipeIngredientIndex recipeIngredientIndex,
+                         @Value("${recipes.search.index.maximum-candidates:10000}") int maximumIndexCandidates,
+                         ReplicaCacheGuard replicaCacheGuard) {
         this.recipeRepository = recipeRepository;
         this.ingredientRecipeRepository = ingredientRecipeRepository;
-        this.ingredientRepository = ingredientRepository;
-        this.measurementUnitRepository = measurementUnitRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.recipeCache = recipeCache;
+        this.recipeSearchCache = recipeSearchCache;
+        this.recipeJdbcRepository = recipeJdbcRepository;
+        this.recipeIngredientIndex = recipeIngredientIndex;
+        this.maximumIndexCandidates = maximumIndexCandidates;
+        this.replicaCacheGuard = replicaCacheGuard;
     }
 
     private static void validateIngredientMinimumNumber(RecipeDTO recipeDTO) throws InvalidInputException {
-        if (recipeDTO.getIngredients().size() < MINIMUM_INGREDIENT_NUMBER) {
+        if (CollectionUtils.size(recipeDTO.getIngredients()) < MINIMUM_INGREDIENT_NUMBER) {
             throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_WITHOUT_INGREDIENTS));
         }
     }
 
+    /**
+     * Checks every ingredient row before its ids are looked up, the request body is not bean validated.
+     */
+    private static void validateIngredients(RecipeDTO recipeDTO) throws InvalidInputException {
+        validateIngredientMinimumNumber(recipeDTO);
+        for (IngredientRecipeDTO ingredientRecipeDTO : recipeDTO.getIngredients()) {
+            validateIngredientRecipe(ingredientRecipeDTO);
+        }
+    }
+
     private static void validateIngredientRecipe(IngredientRecipeDTO ingredientRecipeDTO) throws InvalidInputException {
-        if (ingredientRecipeDTO.getQuantity() <= 0) {
+        if (ingredientRecipeDTO == null) {
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INGREDIENT_INVALID_INPUT));
+        }
+        if (ingredientRecipeDTO.getIngredientId() == null || ingredientRecipeDTO.getMeasurementUnitId() == null
+                || ingredientRecipeDTO.getQuantity() <= 0) {
             throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INGREDIENT_INVALID_INPUT));
         }
     }
@@ -60,22 +112,27 @@ public class RecipeService implements IRecipeService {
     @Transactional
     public RecipeDTO saveRecipe(RecipeDTO recipeDTO) throws RecipeException {
         validateRecipeInput(recipeDTO);
-        List<Ingredient> validIngredients = getExistingIngredient(recipeDTO);
-        validateMeasurementUnitsByRecipe(recipeDTO);
+        List<Ingredient> validIngredients = validateReferenceData(recipeDTO);
 
         RecipeType recipeType = getRecipeTypeByIngredients(validIngredients);
+        LocalDateTime now = getNextUpdatedDate(null);
         Recipe recipeToSave = Recipe.builder()
                 .name(recipeDTO.getName())
                 .servingsNumber(recipeDTO.getServingsNumber())
                 .instructions(recipeDTO.getInstructions())
                 .recipeType(recipeType.getLabel())
-                .creationDate(LocalDateTime.now())
-                .updatedDate(LocalDateTime.now())
+                .creationDate(now)
+                .updatedDate(now)
                 .build();
 
         Recipe recipe = recipeRepository.save(recipeToSave);
-        ingredientRecipeRepository.deleteByRecipeId(recipe.getId());
-        this.ingredientRecipeRepository.saveAll(this.buildRecipeIngredientsEntity(recipeDTO, recipe));
+        recipeCache.evict(recipe.getId());
+        recipeIngredientIndex.update(recipe.getId(), getIngredientIds(List.of(recipeDTO)));
+        recipeIngredientIndex.updateAttributes(recipe.getId(), recipe.getRecipeType(), recipe.getServingsNumber());
+        recipeSearchCache.invalidate();
+        replicaCacheGuard.recordWrite();
+        recipeJdbcRepository.insertIngredientRecipes(this.buildRecipeIngredientsEntity(recipeDTO, recipe));
+        refreshRecipeSearch(List.of(recipe.getId()));
         recipeDTO.setId(recipe.getId());
         recipeDTO.setRecipeType(RecipeType.fromString(recipe.getRecipeType()));
         recipeDTO.setCreationDate(recipe.getCreationDate());
@@ -105,66 +162,277 @@ public class RecipeService implements IRecipeService {
         return ingredients;
     }
 
-    private List<Ingredient> getExistingIngredient(RecipeDTO recipeDTO) throws IngredientNotFoundException {
-        Set<Long> ingredientIds = recipeDTO.getIngredients()
-                .stream()
-                .map(IngredientRecipeDTO::getIngredientId)
-                .collect(Collectors.toSet());
+    /**
+     * Checks every ingredient and measurement unit of the recipe exists, see {@link ReferenceDataCache#getReferenceData},
+     * returning its ingredients.
+     */
+    private List<Ingredient> validateReferenceData(RecipeDTO recipeDTO) throws IngredientNotFoundException, MeasurementUnitNotFoundException {
+        ReferenceDataCache.ReferenceData referenceData = referenceDataCache.getReferenceData(
+                getIngredientIds(List.of(recipeDTO)), getMeasurementUnitIds(List.of(recipeDTO)));
+        List<Ingredient> validIngredients = getExistingIngredient(recipeDTO, referenceData.ingredients());
+        validateMeasurementUnitsByRecipe(recipeDTO, referenceData.measurementUnitIds());
+        return validIngredients;
+    }
 
-        List<Ingredient> ingredients = ingredientRepository.findByIdIn(ingredientIds);
-        if (ingredients.isEmpty() || ingredients.size() != ingredientIds.size()) {
+    private static List<Ingredient> getExistingIngredient(RecipeDTO recipeDTO, Map<Long, Ingredient> knownIngredients) throws IngredientNotFoundException {
+        Set<Long> ingredientIds = getIngredientIds(List.of(recipeDTO));
+        if (ingredientIds.isEmpty() || !knownIngredients.keySet().containsAll(ingredientIds)) {
             String errorMessage = String.format(RecipeUtil.INGREDIENT_NOT_FOUND, ingredientIds);
             throw new IngredientNotFoundException(new ErrorInfo(ErrorCode.INGREDIENT_NOT_FOUND_CODE.getCode(), errorMessage));
         }
 
-        return ingredients;
+        return ingredientIds.stream().map(knownIngredients::get).toList();
     }
 
-    private void validateMeasurementUnitsByRecipe(RecipeDTO recipeDTO) throws MeasurementUnitNotFoundException {
-        Set<Long> measurementIds = recipeDTO.getIngredients().stream().map(IngredientRecipeDTO::getMeasurementUnitId).collect(Collectors.toSet());
-        List<MeasurementUnit> measurements = measurementUnitRepository.findByIdIn(measurementIds);
-
-        if (measurements.isEmpty() || measurements.size() != measurementIds.size()) {
+    private static void validateMeasurementUnitsByRecipe(RecipeDTO recipeDTO, Set<Long> knownMeasurementIds) throws MeasurementUnitNotFoundException {
+        Set<Long> measurementIds = getMeasurementUnitIds(List.of(recipeDTO));
+        if (measurementIds.isEmpty() || !knownMeasurementIds.containsAll(measurementIds)) {
             String errorMessage = String.format(RecipeUtil.MEASUREMENT_UNIT_NOT_FOUND, measurementIds);
             throw new MeasurementUnitNotFoundException(new ErrorInfo(ErrorCode.MEASUREMENT_UNIT_NOT_FOUND_CODE.getCode(), errorMessage));
         }
     }
 
+    /**
+     * Rows with a null id are rejected by {@link #validateIngredientRecipe}, they are only skipped here for the bulk
+     * import lookup, which runs before each recipe is validated.
+     */
+    private static Set<Long> getIngredientIds(List<RecipeDTO> recipeDTOs) {
+        return recipeDTOs.stream()
+                .flatMap(recipeDTO -> CollectionUtils.emptyIfNull(recipeDTO.getIngredients()).stream())
+                .filter(Objects::nonNull)
+                .map(IngredientRecipeDTO::getIngredientId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Long> getMeasurementUnitIds(List<RecipeDTO> recipeDTOs) {
+        return recipeDTOs.stream()
+                .flatMap(recipeDTO -> CollectionUtils.emptyIfNull(recipeDTO.getIngredients()).stream())
+                .filter(Objects::nonNull)
+                .map(IngredientRecipeDTO::getMeasurementUnitId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    @Transactional
+    public BulkRecipeResponse importRecipes(List<RecipeDTO> recipeDTOs) throws RecipeException {
+        if (recipeDTOs.size() > MAXIMUM_BULK_RECIPES) {
+            String errorMessage = String.format(MAXIMUM_BULK_RECIPES_MESSAGE, MAXIMUM_BULK_RECIPES);
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+        }
+        ReferenceDataCache.ReferenceData referenceData = referenceDataCache.getReferenceData(
+                getIngredientIds(recipeDTOs), getMeasurementUnitIds(recipeDTOs));
+        Set<String> usedNames = new HashSet<>(recipeJdbcRepository.findIdsByName(recipeDTOs.stream()
+                .map(RecipeDTO::getName)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet())).keySet());
+        Map<Long, Ingredient> knownIngredients = referenceData.ingredients();
+        Set<Long> knownMeasurementIds = referenceData.measurementUnitIds();
+
+        LocalDateTime now = getNextUpdatedDate(null);
+        List<BulkRecipeResult> results = new ArrayList<>();
+        List<Recipe> recipes = new ArrayList<>();
+        List<RecipeDTO> recipeSources = new ArrayList<>();
+        List<BulkRecipeResult> createdResults = new ArrayList<>();
+        for (int index = 0; index < recipeDTOs.size(); index++) {
+            RecipeDTO recipeDTO = recipeDTOs.get(index);
+            BulkRecipeResult result = BulkRecipeResult.builder().index(index).name(recipeDTO.getName()).build();
+            results.add(result);
+            try {
+                validateRecipeInput(recipeDTO);
+                List<Ingredient> validIngredients = getExistingIngredient(recipeDTO, knownIngredients);
+                validateMeasurementUnitsByRecipe(recipeDTO, knownMeasurementIds);
+                if (!usedNames.add(RecipeJdbcRepository.normalizeName(recipeDTO.getName()))) {
+                    String errorMessage = String.format(RECIPE_NAME_ALREADY_EXISTS, recipeDTO.getName());
+                    throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+                }
+                Recipe recipe = Recipe.builder()
+                        .name(recipeDTO.getName())
+                        .servingsNumber(recipeDTO.getServingsNumber())
+                        .instructions(recipeDTO.getInstructions())
+                        .recipeType(getRecipeTypeByIngredients(validIngredients).getLabel())
+                        .creationDate(now)
+                        .updatedDate(now)
+                        .build();
+                recipes.add(recipe);
+                recipeSources.add(recipeDTO);
+                createdResults.add(result);
+            } catch (RecipeException e) {
+                result.setStatus(BulkRecipeResult.Status.FAILED);
+                result.setError((ErrorInfo) e.getAdditionalData());
+            }
+        }
+
+        if (!recipes.isEmpty()) {
+            recipeJdbcRepository.insertRecipes(recipes);
+            List<IngredientRecipe> ingredientRecipes = new ArrayList<>();
+            List<Long> storedRecipeIds = new ArrayList<>();
+            for (int index = 0; index < recipes.size(); index++) {
+                Recipe recipe = recipes.get(index);
+                BulkRecipeResult result = createdResults.get(index);
+                if (recipe.getId() == null) {
+                    // The database rejected it, e.g. on the unique name index
+                    result.setStatus(BulkRecipeResult.Status.FAILED);
+                    result.setError(new ErrorInfo(ErrorCode.RECIPE_NOT_STORED_CODE.getCode(),
+                            String.format(RECIPE_NOT_STORED, recipe.getName())));
+                    continue;
+                }
+                ingredientRecipes.addAll(buildRecipeIngredientsEntity(recipeSources.get(index), recipe));
+                recipeIngredientIndex.update(recipe.getId(), getIngredientIds(List.of(recipeSources.get(index))));
+                recipeIngredientIndex.updateAttributes(recipe.getId(), recipe.getRecipeType(), recipe.getServingsNumber());
+                storedRecipeIds.add(recipe.getId());
+                result.setId(recipe.getId());
+                result.setStatus(BulkRecipeResult.Status.CREATED);
+            }
+            if (!storedRecipeIds.isEmpty()) {
+                recipeSearchCache.invalidate();
+                replicaCacheGuard.recordWrite();
+                recipeJdbcRepository.insertIngredientRecipes(ingredientRecipes);
+                recipeJdbcRepository.refreshRecipeSearch(storedRecipeIds);
+            }
+        }
+        return new BulkRecipeResponse(results);
+    }
+
     @Override
     @Transactional
     public RecipeDTO updateRecipe(Long recipeId, RecipeDTO recipeDTO) throws RecipeException {
         validateRecipeInput(recipeDTO);
-        getExistingRecipeById(recipeId);
+        Recipe recipe = getExistingRecipeById(recipeId);
 
-        List<Ingredient> validIngredients = getExistingIngredient(recipeDTO);
-        validateMeasurementUnitsByRecipe(recipeDTO);
+        List<Ingredient> validIngredients = validateReferenceData(recipeDTO);
+        List<IngredientRecipe> ingredients = this.buildRecipeIngredientsEntity(recipeDTO, recipe);
 
         RecipeType recipeType = getRecipeTypeByIngredients(validIngredients);
-        Recipe recipeToUpdate = Recipe.builder()
-                .name(recipeDTO.getName())
-                .servingsNumber(recipeDTO.getServingsNumber())
-                .instructions(recipeDTO.getInstructions())
-                .recipeType(recipeType.getLabel())
-                .id(recipeId)
-                .updatedDate(LocalDateTime.now())
-                .build();
-
-        recipeRepository.save(recipeToUpdate);
-        ingredientRecipeRepository.deleteByRecipeId(recipeToUpdate.getId());
-        this.ingredientRecipeRepository.saveAll(this.buildRecipeIngredientsEntity(recipeDTO, recipeToUpdate));
+        recipe.setName(recipeDTO.getName());
+        recipe.setServingsNumber(recipeDTO.getServingsNumber());
+        recipe.setInstructions(recipeDTO.getInstructions());
+        recipe.setRecipeType(recipeType.getLabel());
+        recipe.setUpdatedDate(getNextUpdatedDate(recipe.getUpdatedDate()));
+
+        recipeRepository.save(recipe);
+        recipeCache.evict(recipeId);
+        recipeIngredientIndex.update(recipeId, getIngredientIds(List.of(recipeDTO)));
+        recipeIngredientIndex.updateAttributes(recipeId, recipe.getRecipeType(), recipe.getServingsNumber());
+        recipeSearchCache.invalidate();
+        replicaCacheGuard.recordWrite();
+        saveIngredientRecipes(ingredientRecipeRepository.findByRecipeId(recipeId), ingredients);
+        refreshRecipeSearch(List.of(recipeId));
         recipeDTO.setId(recipeId);
-        recipeDTO.setRecipeType(RecipeType.fromString(recipeToUpdate.getRecipeType()));
+        recipeDTO.setRecipeType(RecipeType.fromString(recipe.getRecipeType()));
+        recipeDTO.setCreationDate(recipe.getCreationDate());
+        recipeDTO.setUpdatedDate(recipe.getUpdatedDate());
         return recipeDTO;
     }
 
+    /**
+     * Applies only the present fields of the patch. Ingredients and measurement units are validated, and the recipe
+     * type re-derived, only when the patch replaces the ingredient list, so small edits need no reference lookups.
+     */
+    @Override
+    @Transactional
+    public RecipeDTO patchRecipe(Long recipeId, RecipePatchDTO recipePatchDTO) throws RecipeException {
+        Recipe recipe = getExistingRecipeById(recipeId);
+        if (recipePatchDTO.getName() != null) {
+            if (StringUtils.isBlank(recipePatchDTO.getName())) {
+                throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INVALID_INPUT));
+            }
+            validateColumnLength(recipePatchDTO.getName(), MAXIMUM_RECIPE_NAME_LENGTH, RECIPE_NAME_TOO_LONG);
+            recipe.setName(recipePatchDTO.getName());
+        }
+        if (recipePatchDTO.getInstructions() != null) {
+            if (StringUtils.isBlank(recipePatchDTO.getInstructions())) {
+                throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INVALID_INPUT));
+            }
+            validateColumnLength(recipePatchDTO.getInstructions(), MAXIMUM_RECIPE_INSTRUCTIONS_LENGTH, RECIPE_INSTRUCTIONS_TOO_LONG);
+            recipe.setInstructions(recipePatchDTO.getInstructions());
+        }
+        if (recipePatchDTO.getServingsNumber() != null) {
+            if (recipePatchDTO.getServingsNumber() <= 0) {
+                throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INVALID_INPUT));
+            }
+            recipe.setServingsNumber(recipePatchDTO.getServingsNumber());
+        }
+        if (recipePatchDTO.getIngredients() != null) {
+            RecipeDTO ingredientsDTO = RecipeDTO.builder().ingredients(recipePatchDTO.getIngredients()).build();
+            validateIngredients(ingredientsDTO);
+            List<Ingredient> validIngredients = validateReferenceData(ingredientsDTO);
+            List<IngredientRecipe> ingredients = this.buildRecipeIngredientsEntity(ingredientsDTO, recipe);
+            recipe.setRecipeType(getRecipeTypeByIngredients(validIngredients).getLabel());
+            recipeIngredientIndex.update(recipeId, getIngredientIds(List.of(ingredientsDTO)));
+            saveIngredientRecipes(ingredientRecipeRepository.findByRecipeId(recipeId), ingredients);
+        }
+        recipe.setUpdatedDate(getNextUpdatedDate(recipe.getUpdatedDate()));
+
+        recipeRepository.save(recipe);
+        recipeCache.evict(recipeId);
+        recipeIngredientIndex.updateAttributes(recipeId, recipe.getRecipeType(), recipe.getServingsNumber());
+        recipeSearchCache.invalidate();
+        replicaCacheGuard.recordWrite();
+        refreshRecipeSearch(List.of(recipeId));
+        return getBuildRecipeDTO(recipe, getIngredientsByRecipe(List.of(recipe)).getOrDefault(recipeId, new ArrayList<>()));
+    }
+
+    /**
+     * Writes only the difference between the stored ingredient rows of a recipe and the requested ones. Rows are
+     * matched by ingredient, changed rows are updated in place and the rest are deleted or inserted, each in one
+     * JDBC batch, so untouched rows keep their ids and cost no statement.
+     */
+    private void saveIngredientRecipes(List<IngredientRecipe> existingIngredients, List<IngredientRecipe> ingredients) {
+        Map<Long, Deque<IngredientRecipe>> existingByIngredient = existingIngredients.stream()
+                .collect(Collectors.groupingBy(IngredientRecipe::getIngredientId, Collectors.toCollection(ArrayDeque::new)));
+        List<IngredientRecipe> ingredientsToInsert = new ArrayList<>();
+        List<IngredientRecipe> ingredientsToUpdate = new ArrayList<>();
+        for (IngredientRecipe ingredient : ingredients) {
+            IngredientRecipe existing = Optional.ofNullable(existingByIngredient.get(ingredient.getIngredientId()))
+                    .map(Deque::poll)
+                    .orElse(null);
+            if (existing == null) {
+                ingredientsToInsert.add(ingredient);
+            } else if (!Objects.equals(existing.getMeasurementUnitId(), ingredient.getMeasurementUnitId())
+                    || Float.compare(existing.getQuantity(), ingredient.getQuantity()) != 0) {
+                ingredient.setId(existing.getId());
+                ingredientsToUpdate.add(ingredient);
+            }
+        }
+        List<Long> ingredientIdsToDelete = existingByIngredient.values().stream()
+                .flatMap(Collection::stream)
+                .map(IngredientRecipe::getId)
+                .toList();
+
+        if (!ingredientIdsToDelete.isEmpty()) {
+            recipeJdbcRepository.deleteIngredientRecipes(ingredientIdsToDelete);
+        }
+        if (!ingredientsToUpdate.isEmpty()) {
+            recipeJdbcRepository.updateIngredientRecipes(ingredientsToUpdate);
+        }
+        if (!ingredientsToInsert.isEmpty()) {
+            recipeJdbcRepository.insertIngredientRecipes(ingredientsToInsert);
+        }
+    }
+
     @Override
     @Transactional
     public void deleteRecipe(Long recipeId) throws RecipeNotFoundException {
         getExistingRecipeById(recipeId);
+        recipeCache.evict(recipeId);
+        recipeIngredientIndex.remove(recipeId);
+        recipeSearchCache.invalidate();
+        replicaCacheGuard.recordWrite();
         ingredientRecipeRepository.deleteByRecipeId(recipeId);
         recipeRepository.deleteById(recipeId);
     }
 
+    /**
+     * Flushes the pending JPA writes so the recipe_search upsert, which runs over JDBC in the same transaction,
+     * reads the new recipe and ingredient rows.
+     */
+    private void refreshRecipeSearch(List<Long> recipeIds) {
+        recipeRepository.flush();
+        recipeJdbcRepository.refreshRecipeSearch(recipeIds);
+    }
+
     private Recipe getExistingRecipeById(Long recipeId) throws RecipeNotFoundException {
         Optional<Recipe> recipeOptional = recipeRepository.findById(recipeId);
         if (recipeOptional.isEmpty()) {
@@ -180,26 +448,289 @@ public class RecipeService implements IRecipeService {
                                               List<String> includedIngredients,
                                               List<String> excludedIngredients,
                                               String instructionKeyword,
-                                              Integer servings) throws RecipeException {
+                                              Integer servings,
+                                              CountMode countMode,
+                                              boolean facets) throws RecipeException {
 
-        String recipeTypeFilter = Optional.ofNullable(isVegetarian)
-                .map(veggie -> isVegetarian ? RecipeType.VEGETARIAN.getLabel() : RecipeType.NON_VEGETARIAN.getLabel())
-                .orElse(null);
-        String instructionKeywordParam = Optional.ofNullable(instructionKeyword)
-                .filter(StringUtils::isNotBlank)
-                .map(kword -> "%" + kword + "%")
+        String recipeTypeFilter = getRecipeTypeFilter(isVegetarian);
+        String instructionKeywordParam = getInstructionKeywordFilter(instructionKeyword);
+        List<String> includedIngredientsParam = getValidateIngredientFilter(includedIngredients);
+        List<String> excludedIngredientsParam = getValidateIngredientFilter(excludedIngredients);
+        boolean sortByRelevance = pageable.getSort().getOrderFor(RELEVANCE_SORT) != null;
+        if (sortByRelevance && instructionKeywordParam.isEmpty()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), DEFAULT_RECIPE_SORT);
+        }
+        RecipeSearchCache.Filters filters = recipeSearchCache.filters(recipeTypeFilter, includedIngredientsParam,
+                excludedIngredientsParam, getIngredientIdsByName(includedIngredientsParam),
+                getIngredientIdsByName(excludedIngredientsParam), instructionKeywordParam, servings);
+        RecipeSearchCache.Key searchKey = recipeSearchCache.key(filters, pageable, countMode, facets);
+        boolean readCache = replicaCacheGuard.canReadCache();
+        long readStart = replicaCacheGuard.startRead();
+        Optional<PaginatedRecipeResponse> cachedSearch = readCache ? recipeSearchCache.get(searchKey) : Optional.empty();
+        if (cachedSearch.isPresent()) {
+            return cachedSearch.get();
+        }
+        Optional<RoaringBitmap> candidateRecipeIds = findCandidateRecipeIds(filters)
+                .filter(recipeIds -> recipeIds.getCardinality() <= maximumIndexCandidates);
+        List<Long> candidateIds = candidateRecipeIds
+                .map(recipeIds -> recipeIds.stream().mapToObj(Long::valueOf).toList())
                 .orElse(null);
+        Slice<Recipe> recipes;
+        if (sortByRelevance && !instructionKeywordParam.isEmpty()) {
+            recipes = this.recipeRepository.findAllByRelevance(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()),
+                    recipeTypeFilter,
+                    !includedIngredientsParam.isEmpty(),
+                    !excludedIngredientsParam.isEmpty(),
+                    filters.includedIngredientIds(), filters.excludedIngredientIds(),
+                    instructionKeywordParam, servings);
+        } else if (candidateIds != null) {
+            recipes = candidateIds.isEmpty() ? new SliceImpl<>(List.of(), pageable, false) : this.recipeRepository.findAllByIdIn(pageable,
+                    candidateIds, recipeTypeFilter, instructionKeywordParam, servings);
+        } else {
+            recipes = this.recipeRepository.findAll(pageable,
+                    recipeTypeFilter,
+                    !includedIngredientsParam.isEmpty(),
+                    !excludedIngredientsParam.isEmpty(),
+                    filters.includedIngredientIds(), filters.excludedIngredientIds(),
+                    instructionKeywordParam, servings);
+        }
+
+        Map<Long, List<IngredientRecipeDTO>> ingredientsByRecipe = getIngredientsByRecipe(recipes.getContent());
+        Slice<RecipeDTO> page = recipes.map(recipe -> getBuildRecipeDTO(recipe,
+                ingredientsByRecipe.getOrDefault(recipe.getId(), new ArrayList<>())));
+        PaginatedRecipeResponse response = countRecipes(filters, countMode, candidateIds, readCache, readStart)
+                .map(count -> new PaginatedRecipeResponse(page, count.total(), count.estimated()))
+                .orElseGet(() -> new PaginatedRecipeResponse(page, null, false));
+        if (facets) {
+            response.setFacets(getRecipeFacets(filters, readCache, readStart));
+        }
+        if (replicaCacheGuard.canCache(readStart)) {
+            recipeSearchCache.put(searchKey, response);
+        }
+        return response;
+    }
+
+    private record RecipeCount(long total, boolean estimated) {
+    }
+
+    /**
+     * Counts the search results as the count mode asks. Without a keyword the ingredient, type and servings bitmaps
+     * give the exact total in memory. With one, an estimate is the in-memory total ignoring the keyword, an upper
+     * bound, and an exact count runs one count query per filter set, reused by every page until the next write.
+     */
+    private Optional<RecipeCount> countRecipes(RecipeSearchCache.Filters filters, CountMode countMode, List<Long> candidateIds,
+                                               boolean readCache, long readStart) {
+        if (countMode == CountMode.NONE) {
+            return Optional.empty();
+        }
+        boolean filterByKeyword = !filters.instructionKeyword().isEmpty();
+        if (!filterByKeyword || countMode == CountMode.ESTIMATE) {
+            OptionalLong indexCount = recipeIngredientIndex.countRecipes(!filters.includedIngredients().isEmpty(),
+                    filters.includedIngredientIds(),
+                    filters.excludedIngredientIds(),
+                    filters.recipeType(), filters.servings());
+            if (indexCount.isPresent()) {
+                return Optional.of(new RecipeCount(indexCount.getAsLong(), filterByKeyword));
+            }
+        }
+        Optional<Long> cachedCount = readCache ? recipeSearchCache.getCount(filters) : Optional.empty();
+        if (cachedCount.isPresent()) {
+            return Optional.of(new RecipeCount(cachedCount.get(), false));
+        }
+        long total;
+        if (candidateIds == null) {
+            total = recipeRepository.countAll(filters.recipeType(),
+                    !filters.includedIngredients().isEmpty(),
+                    !filters.excludedIngredients().isEmpty(),
+                    filters.includedIngredientIds(), filters.excludedIngredientIds(),
+                    filters.instructionKeyword(), filters.servings());
+        } else {
+            total = candidateIds.isEmpty() ? 0 : recipeRepository.countAllByIdIn(candidateIds, filters.recipeType(),
+                    filters.instructionKeyword(), filters.servings());
+        }
+        if (replicaCacheGuard.canCache(readStart)) {
+            recipeSearchCache.putCount(filters, total);
+        }
+        return Optional.of(new RecipeCount(total, false));
+    }
+
+    /**
+     * Computes the facet counts of the whole filtered result set once per filter set. Without a keyword they come
+     * from the in-memory index, otherwise from a single aggregated query grouping the matching rows by type,
+     * servings number and ingredient.
+     */
+    private RecipeFacets getRecipeFacets(RecipeSearchCache.Filters filters, boolean readCache, long readStart) {
+        Optional<RecipeFacets> cachedFacets = readCache ? recipeSearchCache.getFacets(filters) : Optional.empty();
+        if (cachedFacets.isPresent()) {
+            return cachedFacets.get();
+        }
+        Optional<RecipeIngredientIndex.FacetCounts> indexFacetCounts = Optional.empty();
+        if (filters.instructionKeyword().isEmpty()) {
+            indexFacetCounts = recipeIngredientIndex.countFacets(!filters.includedIngredients().isEmpty(),
+                    filters.includedIngredientIds(),
+                    filters.excludedIngredientIds(),
+                    filters.recipeType(), filters.servings());
+        }
+        RecipeFacets recipeFacets = buildRecipeFacets(indexFacetCounts.orElseGet(() -> countFacets(filters)));
+        if (replicaCacheGuard.canCache(readStart)) {
+            recipeSearchCache.putFacets(filters, recipeFacets);
+        }
+        return recipeFacets;
+    }
+
+    private RecipeIngredientIndex.FacetCounts countFacets(RecipeSearchCache.Filters filters) {
+        Map<String, Long> recipeTypes = new HashMap<>();
+        Map<Integer, Long> servings = new HashMap<>();
+        Map<Long, Long> ingredients = new HashMap<>();
+        List<RecipeRepository.FacetCount> facetCounts = recipeRepository.countFacets(filters.recipeType(),
+                !filters.includedIngredients().isEmpty(),
+                !filters.excludedIngredients().isEmpty(),
+                filters.includedIngredientIds(), filters.excludedIngredientIds(),
+                filters.instructionKeyword(), filters.servings());
+        for (RecipeRepository.FacetCount facetCount : facetCounts) {
+            switch (facetCount.getFacet()) {
+                case RECIPE_TYPE_FACET -> recipeTypes.put(facetCount.getFacetValue(), facetCount.getFacetCount());
+                case SERVINGS_FACET -> servings.put(Integer.valueOf(facetCount.getFacetValue()), facetCount.getFacetCount());
+                case INGREDIENT_FACET -> ingredients.put(Long.valueOf(facetCount.getFacetValue()), facetCount.getFacetCount());
+                default -> throw new IllegalStateException("Unknown facet " + facetCount.getFacet());
+            }
+        }
+        return new RecipeIngredientIndex.FacetCounts(recipeTypes, servings, ingredients);
+    }
+
+    /**
+     * Sorts the type and servings counts by value and keeps the most used ingredients, ties broken by ingredient id.
+     */
+    private RecipeFacets buildRecipeFacets(RecipeIngredientIndex.FacetCounts facetCounts) {
+        List<Map.Entry<Long, Long>> topIngredients = facetCounts.ingredients().entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAXIMUM_INGREDIENT_FACETS)
+                .toList();
+        Map<Long, Ingredient> ingredientEntityMap = topIngredients.isEmpty() ? Collections.emptyMap()
+                : referenceDataCache.getIngredients(topIngredients.stream().map(Map.Entry::getKey).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        return RecipeFacets.builder()
+                .recipeTypes(new TreeMap<>(facetCounts.recipeTypes()))
+                .servings(new TreeMap<>(facetCounts.servings()))
+                .ingredients(topIngredients.stream()
+                        .map(ingredientCount -> IngredientFacet.builder()
+                                .ingredientId(ingredientCount.getKey())
+                                .ingredientName(Optional.ofNullable(ingredientEntityMap.get(ingredientCount.getKey()))
+                                        .map(Ingredient::getName)
+                                        .orElse(null))
+                                .count(ingredientCount.getValue())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private Optional<RoaringBitmap> findCandidateRecipeIds(RecipeSearchCache.Filters filters) {
+        if (!recipeIngredientIndex.isReady()
+                || (filters.includedIngredients().isEmpty() && filters.excludedIngredients().isEmpty())) {
+            return Optional.empty();
+        }
+        return recipeIngredientIndex.findRecipeIds(!filters.includedIngredients().isEmpty(),
+                filters.includedIngredientIds(),
+                filters.excludedIngredientIds());
+    }
+
+    /**
+     * Resolves the normalised filter names to ingredient ids once per search, from the reference data cache, so the
+     * index and the queries filter on ids. Unknown names resolve to nothing.
+     */
+    private Set<Long> getIngredientIdsByName(List<String> ingredientNames) {
+        if (ingredientNames.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return referenceDataCache.getIngredientIdsByName(ingredientNames);
+    }
+
+    @Override
+    public PaginatedRecipeResponse getRecipesAfter(String after,
+                                                   int size,
+                                                   Sort sort,
+                                                   Boolean isVegetarian,
+                                                   List<String> includedIngredients,
+                                                   List<String> excludedIngredients,
+                                                   String instructionKeyword,
+                                                   Integer servings) throws RecipeException {
+        // The cursor only carries name and id, so the keyset can only walk the default order
+        if (sort.isSorted() && !DEFAULT_RECIPE_SORT.equals(sort)) {
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), INVALID_CURSOR_SORT));
+        }
+        RecipeCursor cursor = StringUtils.isBlank(after) ? null : decodeRecipeCursor(after);
         List<String> includedIngredientsParam = getValidateIngredientFilter(includedIngredients);
         List<String> excludedIngredientsParam = getValidateIngredientFilter(excludedIngredients);
-        Page<Recipe> recipes = this.recipeRepository.findAll(pageable,
-                recipeTypeFilter,
+        List<Recipe> recipes = this.recipeRepository.findAllAfter(
+                cursor == null ? null : cursor.getName(),
+                cursor == null ? null : cursor.getId(),
+                size + 1,
+                getRecipeTypeFilter(isVegetarian),
                 !includedIngredientsParam.isEmpty(),
                 !excludedIngredientsParam.isEmpty(),
-                includedIngredientsParam, excludedIngredientsParam,
-                instructionKeywordParam, servings);
+                List.copyOf(getIngredientIdsByName(includedIngredientsParam)),
+                List.copyOf(getIngredientIdsByName(excludedIngredientsParam)),
+                getInstructionKeywordFilter(instructionKeyword), servings);
+
+        boolean hasNext = recipes.size() > size;
+        List<Recipe> pageRecipes = hasNext ? recipes.subList(0, size) : recipes;
+        Map<Long, List<IngredientRecipeDTO>> ingredientsByRecipe = getIngredientsByRecipe(pageRecipes);
+        List<RecipeDTO> content = pageRecipes.stream()
+                .map(recipe -> getBuildRecipeDTO(recipe, ingredientsByRecipe.getOrDefault(recipe.getId(), new ArrayList<>())))
+                .toList();
+        String nextCursor = hasNext ? encodeRecipeCursor(pageRecipes.get(size - 1)) : null;
+        return new PaginatedRecipeResponse(content, size, nextCursor);
+    }
+
+    @Override
+    public void exportRecipes(Consumer<RecipeDTO> consumer) {
+        recipeJdbcRepository.streamRecipesWithIngredients((recipe, recipeIngredients) -> {
+            Map<Long, Ingredient> ingredientEntityMap = getIngredientEntityMap(recipeIngredients);
+            consumer.accept(getBuildRecipeDTO(recipe, recipeIngredients.stream()
+                    .map(recipeIng -> buildIngredientRecipeDTO(recipeIng, ingredientEntityMap))
+                    .toList()));
+        });
+    }
 
-        Page<RecipeDTO> page = recipes.map(recipe -> getBuildRecipeDTO(recipe, new ArrayList<>()));
-        return new PaginatedRecipeResponse(page);
+    private static String getRecipeTypeFilter(Boolean isVegetarian) {
+        return Optional.ofNullable(isVegetarian)
+                .map(veggie -> isVegetarian ? RecipeType.VEGETARIAN.getLabel() : RecipeType.NON_VEGETARIAN.getLabel())
+                .orElse(null);
+    }
+
+    private static String getInstructionKeywordFilter(String instructionKeyword) throws InvalidInputException {
+        return instructionKeyword == null ? "" : RecipeUtil.getFullTextQuery(instructionKeyword);
+    }
+
+    private Map<Long, List<IngredientRecipeDTO>> getIngredientsByRecipe(List<Recipe> recipes) {
+        if (recipes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> recipeIds = recipes.stream().map(Recipe::getId).collect(Collectors.toSet());
+        List<IngredientRecipe> recipeIngredients = ingredientRecipeRepository.findByRecipeIdIn(recipeIds);
+        Map<Long, Ingredient> ingredientEntityMap = getIngredientEntityMap(recipeIngredients);
+
+        return recipeIngredients.stream()
+                .collect(Collectors.groupingBy(IngredientRecipe::getRecipeId,
+                        Collectors.mapping(recipeIng -> buildIngredientRecipeDTO(recipeIng, ingredientEntityMap),
+                                Collectors.toList())));
+    }
+
+    private Map<Long, Ingredient> getIngredientEntityMap(List<IngredientRecipe> recipeIngredients) {
+        if (recipeIngredients.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<Long> ingredientsIds = recipeIngredients.stream().map(IngredientRecipe::getIngredientId).collect(Collectors.toSet());
+        return referenceDataCache.getIngredients(ingredientsIds).stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+    }
+
+    private static IngredientRecipeDTO buildIngredientRecipeDTO(IngredientRecipe recipeIng, Map<Long, Ingredient> ingredientEntityMap) {
+        return IngredientRecipeDTO.builder()
+                .ingredientId(recipeIng.getIngredientId())
+                .ingredientName(ingredientEntityMap.get(recipeIng.getIngredientId()).getName())
+                .measurementUnitId(recipeIng.getMeasurementUnitId())
+                .quantity(recipeIng.getQuantity())
+                .build();
     }
 
     private List<String> getValidateIngredientFilter(List<String> ingredientsToFilter) throws InvalidInputException {
@@ -208,35 +739,111 @@ public class RecipeService implements IRecipeService {
             throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
         }
 
-        return CollectionUtils.emptyIfNull(ingredientsToFilter).stream().map(String::toUpperCase).toList();
+        return CollectionUtils.emptyIfNull(ingredientsToFilter).stream().map(RecipeUtil::normalizeIngredientName).toList();
     }
 
     @Override
     public RecipeDTO getRecipeById(Long recipeId) throws RecipeNotFoundException {
+        long readStart = replicaCacheGuard.startRead();
+        long cacheGeneration = recipeCache.generation();
+        Optional<RecipeDTO> cachedRecipe = replicaCacheGuard.canReadCache() ? recipeCache.get(recipeId) : Optional.empty();
+        if (cachedRecipe.isPresent()) {
+            return cachedRecipe.get();
+        }
         Recipe recipe = getExistingRecipeById(recipeId);
         List<IngredientRecipe> recipeIngredients = ingredientRecipeRepository.findByRecipeId(recipeId);
-        Set<Long> ingredientsIds = recipeIngredients.stream().map(IngredientRecipe::getIngredientId).collect(Collectors.toSet());
-        Map<Long, Ingredient> ingredientEntityMap = ingredientRepository.findByIdIn(ingredientsIds).stream().collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        Map<Long, Ingredient> ingredientEntityMap = getIngredientEntityMap(recipeIngredients);
 
         List<IngredientRecipeDTO> recipeIngredientList = recipeIngredients.stream()
-                .map(recipeIng ->
-                        IngredientRecipeDTO.builder()
-                                .ingredientId(recipeIng.getIngredientId())
-                                .ingredientName(ingredientEntityMap.get(recipeIng.getIngredientId()).getName())
-                                .measurementUnitId(recipeIng.getMeasurementUnitId())
-                                .quantity(recipeIng.getQuantity())
-                                .build()
-                ).toList();
+                .map(recipeIng -> buildIngredientRecipeDTO(recipeIng, ingredientEntityMap))
+                .toList();
+
+        RecipeDTO recipeDTO = getBuildRecipeDTO(recipe, recipeIngredientList);
+        if (replicaCacheGuard.canCache(readStart)) {
+            recipeCache.put(recipeDTO, cacheGeneration);
+        }
+        return recipeDTO;
+    }
 
-        return getBuildRecipeDTO(recipe, recipeIngredientList);
+    /**
+     * Returns the updated date of a recipe from the recipe cache or, on a miss, a single column primary key lookup,
+     * enough to revalidate an ETag without loading the ingredients.
+     */
+    @Override
+    public Optional<LocalDateTime> getRecipeUpdatedDate(Long recipeId) {
+        Optional<RecipeDTO> cachedRecipe = replicaCacheGuard.canReadCache() ? recipeCache.get(recipeId) : Optional.empty();
+        if (cachedRecipe.isPresent()) {
+            return Optional.ofNullable(cachedRecipe.get().getUpdatedDate());
+        }
+        return recipeRepository.findUpdatedDateById(recipeId);
+    }
+
+    /**
+     * Assembles the requested recipes in input order. Cached recipes are served as is and the misses are loaded with
+     * one query per table (recipe, ingredient_recipe and, for uncached names, ingredient) whatever their number.
+     */
+    @Override
+    public BatchRecipeResponse getRecipesByIds(List<Long> recipeIds) throws RecipeException {
+        if (recipeIds.size() > MAXIMUM_BATCH_RECIPES) {
+            String errorMessage = String.format(MAXIMUM_BATCH_RECIPES_MESSAGE, MAXIMUM_BATCH_RECIPES);
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+        }
+        Map<Long, RecipeDTO> recipesById = new HashMap<>();
+        Set<Long> missingIds = new HashSet<>();
+        boolean readCache = replicaCacheGuard.canReadCache();
+        long readStart = replicaCacheGuard.startRead();
+        long cacheGeneration = recipeCache.generation();
+        for (Long recipeId : recipeIds) {
+            Optional<RecipeDTO> cachedRecipe = readCache ? recipeCache.get(recipeId) : Optional.empty();
+            cachedRecipe.ifPresentOrElse(recipeDTO -> recipesById.put(recipeId, recipeDTO),
+                    () -> missingIds.add(recipeId));
+        }
+        if (!missingIds.isEmpty()) {
+            List<Recipe> recipes = recipeRepository.findAllById(missingIds);
+            Map<Long, List<IngredientRecipeDTO>> ingredientsByRecipe = getIngredientsByRecipe(recipes);
+            for (Recipe recipe : recipes) {
+                RecipeDTO recipeDTO = getBuildRecipeDTO(recipe, ingredientsByRecipe.getOrDefault(recipe.getId(), new ArrayList<>()));
+                if (replicaCacheGuard.canCache(readStart)) {
+                    recipeCache.put(recipeDTO, cacheGeneration);
+                }
+                recipesById.put(recipe.getId(), recipeDTO);
+            }
+        }
 
+        List<BatchRecipeResult> results = recipeIds.stream()
+                .map(recipeId -> Optional.ofNullable(recipesById.get(recipeId))
+                        .map(recipeDTO -> BatchRecipeResult.builder()
+                                .id(recipeId)
+                                .status(BatchRecipeResult.Status.FOUND)
+                                .recipe(recipeDTO)
+                                .build())
+                        .orElseGet(() -> BatchRecipeResult.builder()
+                                .id(recipeId)
+                                .status(BatchRecipeResult.Status.NOT_FOUND)
+                                .error(new ErrorInfo(ErrorCode.RECIPE_NOT_FOUND_CODE.getCode(),
+                                        String.format(RecipeUtil.RECIPE_NOT_FOUND, recipeId)))
+                                .build()))
+                .toList();
+        return new BatchRecipeResponse(results);
     }
 
     private void validateRecipeInput(RecipeDTO recipeDTO) throws InvalidInputException {
-        if (StringUtils.isBlank(recipeDTO.getName())) {
+        if (StringUtils.isBlank(recipeDTO.getName()) || StringUtils.isBlank(recipeDTO.getInstructions())) {
             throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), RECIPE_INVALID_INPUT));
         }
-        validateIngredientMinimumNumber(recipeDTO);
+        validateColumnLength(recipeDTO.getName(), MAXIMUM_RECIPE_NAME_LENGTH, RECIPE_NAME_TOO_LONG);
+        validateColumnLength(recipeDTO.getInstructions(), MAXIMUM_RECIPE_INSTRUCTIONS_LENGTH, RECIPE_INSTRUCTIONS_TOO_LONG);
+        validateIngredients(recipeDTO);
+    }
+
+    /**
+     * Checks a text against its varchar column, whose length MySQL counts in characters.
+     */
+    private static void validateColumnLength(String text, int maximumLength, String message) throws InvalidInputException {
+        if (text.codePointCount(0, text.length()) > maximumLength) {
+            String errorMessage = String.format(message, maximumLength);
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+        }
     }
 
 
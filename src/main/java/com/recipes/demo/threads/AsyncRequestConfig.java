@@ -0,0 +1,56 @@
+package com.recipes.demo.threads;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Runs async MVC work, such as the export stream, on the applicationTaskExecutor with the configured timeout,
+ * instead of the SimpleAsyncTaskExecutor fallback that starts a new thread for every request. On platform threads
+ * the executor is a bounded pool, each export holds a JDBC connection for the whole stream so the pool stays below
+ * the connection pool size, and a full queue answers 503. With virtual threads enabled the jdk21
+ * VirtualThreadConfig provides the applicationTaskExecutor instead.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AsyncRequestConfig implements WebMvcConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final Duration requestTimeout;
+
+    public AsyncRequestConfig(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                              AsyncTaskExecutor applicationTaskExecutor,
+                              @Value("${spring.mvc.async.request-timeout:30m}") Duration requestTimeout) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    @ConditionalOnProperty(prefix = "recipes.threads.virtual", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    public static ThreadPoolTaskExecutor applicationTaskExecutor(@Value("${recipes.mvc.async.threads:4}") int threads,
+                                                                 @Value("${recipes.mvc.async.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(applicationTaskExecutor);
+        configurer.setDefaultTimeout(requestTimeout.toMillis());
+    }
+}
@@ -0,0 +1,28 @@
+package com.recipes.demo.threads;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Fails the startup when virtual threads are turned on in a build without the jdk21 Maven profile, where
+ * VirtualThreadConfig and the pinning monitor are not compiled and requests would silently stay on platform threads.
+ * The check runs as a bean factory post-processor, before any bean depending on the virtual thread executor.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipes.threads.virtual", name = "enabled", havingValue = "true")
+@ConditionalOnMissingClass("com.recipes.demo.threads.VirtualThreadConfig")
+public class VirtualThreadSupportCheck {
+
+    static final String MISSING_JDK21_BUILD = "recipes.threads.virtual.enabled=true needs a build with the jdk21 " +
+            "Maven profile running on Java 21";
+
+    @Bean
+    public static BeanFactoryPostProcessor virtualThreadSupportCheckPostProcessor() {
+        return beanFactory -> {
+            throw new IllegalStateException(MISSING_JDK21_BUILD);
+        };
+    }
+}
@@ -1,13 +1,32 @@
 package com.recipes.demo.util;
 
+import com.recipes.demo.exception.ErrorCode;
+import com.recipes.demo.exception.ErrorInfo;
+import com.recipes.demo.exception.InvalidInputException;
 import com.recipes.demo.model.IngredientRecipeDTO;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeCursor;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipePatchDTO;
 import com.recipes.demo.model.RecipeType;
+import com.recipes.demo.model.endpoint.RecipeIngredientRequest;
+import com.recipes.demo.model.endpoint.RecipePatchRequest;
 import com.recipes.demo.model.endpoint.RecipeRequest;
 import com.recipes.demo.repository.entity.Recipe;
 import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public final class RecipeUtil {
 
@@ -20,7 +39,32 @@ public final class RecipeUtil {
     public static final String MAXIMUM_NUMBER_INGREDIENTS_FILTER_MESSAGE = "The maximum number of ingredients to filter is %s";
     public static final Long VEGETARIAN_DEFAULT_ID = 1L;
     public static final int MAXIMUM_NUMBER_INGREDIENTS_FILTER = 10;
-    public static final String RECIPE_INGREDIENT_INVALID_INPUT = "Quantity and measurement unit is required";
+    public static final String RECIPE_INGREDIENT_INVALID_INPUT = "Ingredient, quantity and measurement unit are required";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor";
+    public static final String INVALID_SORT = "Invalid sort property";
+    public static final String INVALID_CURSOR_SORT = "Sort is not supported with after, cursor pages are sorted by name desc and id asc";
+    public static final String RECIPE_NAME_ALREADY_EXISTS = "Recipe %s already exists";
+    public static final int MAXIMUM_RECIPE_NAME_LENGTH = 120;
+    public static final String RECIPE_NAME_TOO_LONG = "Recipe name must be maximum %s characters";
+    public static final int MAXIMUM_RECIPE_INSTRUCTIONS_LENGTH = 500;
+    public static final String RECIPE_INSTRUCTIONS_TOO_LONG = "Instructions must be maximum %s characters";
+    public static final String RECIPE_NOT_STORED = "Recipe %s could not be stored";
+    public static final int MAXIMUM_BULK_RECIPES = 5000;
+    public static final String MAXIMUM_BULK_RECIPES_MESSAGE = "The maximum number of recipes to import is %s";
+    private static final String CURSOR_SEPARATOR = ":";
+    public static final int MAXIMUM_BATCH_RECIPES = 500;
+    public static final String MAXIMUM_BATCH_RECIPES_MESSAGE = "The maximum number of recipes to get is %s";
+    public static final int MAXIMUM_INGREDIENT_FACETS = 10;
+    public static final String RECIPE_TYPE_FACET = "RECIPE_TYPE";
+    public static final String SERVINGS_FACET = "SERVINGS";
+    public static final String INGREDIENT_FACET = "INGREDIENT";
+    private static final String RECIPE_PAGE_ETAG_SEPARATOR = ",";
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    public static final String RELEVANCE_SORT = "relevance";
+    public static final Sort DEFAULT_RECIPE_SORT = Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id"));
+    public static final int FULL_TEXT_MINIMUM_TERM_LENGTH = 3;
+    public static final String INVALID_INSTRUCTION_KEYWORD = "Instruction keyword must have a word of at least %s letters or digits";
+    private static final Pattern FULL_TEXT_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
 
     public static RecipeDTO getBuildRecipeDTO(Recipe recipe, List<IngredientRecipeDTO> recipeIngredientList) {
         return RecipeDTO.builder()
@@ -31,11 +75,109 @@ public final class RecipeUtil {
                 .servingsNumber(recipe.getServingsNumber())
                 .instructions(recipe.getInstructions())
                 .ingredients(recipeIngredientList)
+                .updatedDate(recipe.getUpdatedDate())
                 .build();
     }
 
+    /**
+     * Returns the current time at the microsecond precision of the recipe date columns, so the value a write returns
+     * is the value later reads load. It is always after the previous updated date, so every write changes the ETag.
+     */
+    public static LocalDateTime getNextUpdatedDate(LocalDateTime previousUpdatedDate) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (previousUpdatedDate != null && !now.isAfter(previousUpdatedDate)) {
+            return previousUpdatedDate.truncatedTo(ChronoUnit.MICROS).plus(1, ChronoUnit.MICROS);
+        }
+        return now;
+    }
+
+    /**
+     * Strong ETag of a recipe, which changes with every write because each one moves updatedDate forward.
+     */
+    public static String getRecipeETag(Long recipeId, LocalDateTime updatedDate) {
+        return "\"" + recipeId + "-" + ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), updatedDate) + "\"";
+    }
+
+    /**
+     * Weak ETag of a recipe page derived from the id and updated date of every recipe it holds plus its paging fields,
+     * so it changes when a recipe of the page is written or the page content shifts. Facet counts, when asked for,
+     * are part of it too since a write outside the page can move them.
+     */
+    public static String getRecipePageETag(PaginatedRecipeResponse response) {
+        StringJoiner version = new StringJoiner(RECIPE_PAGE_ETAG_SEPARATOR);
+        version.add(String.valueOf(response.getPageNo()))
+                .add(String.valueOf(response.getPageSize()))
+                .add(String.valueOf(response.getTotalElements()))
+                .add(String.valueOf(response.getNextCursor()))
+                .add(String.valueOf(response.getFacets()));
+        response.getContent().forEach(recipeDTO -> version.add(recipeDTO.getId() + "@" + recipeDTO.getUpdatedDate()));
+        return "W/\"" + DigestUtils.md5DigestAsHex(version.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Same normalisation as the ingredient.normalized_name column, UPPER(TRIM(name)).
+     */
+    public static String normalizeIngredientName(String ingredientName) {
+        return ingredientName.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds a MySQL boolean mode query requiring every keyword term as a prefix, e.g. "boil water" becomes
+     * "+boil* +water*". Operator characters are dropped and terms shorter than the InnoDB minimum token size
+     * are skipped because the FULLTEXT index never contains them. A blank keyword gives an empty query, no filter,
+     * but a keyword whose every term is skipped is rejected rather than silently matching every recipe.
+     */
+    public static String getFullTextQuery(String keyword) throws InvalidInputException {
+        if (keyword.isBlank()) {
+            return "";
+        }
+        String fullTextQuery = Arrays.stream(FULL_TEXT_TERM_SEPARATOR.split(keyword))
+                .filter(term -> term.length() >= FULL_TEXT_MINIMUM_TERM_LENGTH)
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+        if (fullTextQuery.isEmpty()) {
+            String errorMessage = String.format(INVALID_INSTRUCTION_KEYWORD, FULL_TEXT_MINIMUM_TERM_LENGTH);
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+        }
+        return fullTextQuery;
+    }
+
+    public static String encodeRecipeCursor(Recipe recipe) {
+        String cursor = recipe.getId() + CURSOR_SEPARATOR + recipe.getName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RecipeCursor decodeRecipeCursor(String cursor) throws InvalidInputException {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(CURSOR_SEPARATOR);
+            return new RecipeCursor(Long.valueOf(decoded.substring(0, separatorIndex)), decoded.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), INVALID_CURSOR));
+        }
+    }
+
     public static RecipeDTO getRecipeDTO(RecipeRequest recipeRequest) {
-        List<IngredientRecipeDTO> ingredients = CollectionUtils.emptyIfNull(recipeRequest.getIngredients())
+        return RecipeDTO.builder()
+                .name(recipeRequest.getName())
+                .instructions(recipeRequest.getInstructions())
+                .servingsNumber(recipeRequest.getServingsNumber())
+                .ingredients(getIngredientRecipeDTOs(recipeRequest.getIngredients()))
+                .build();
+    }
+
+    public static RecipePatchDTO getRecipePatchDTO(RecipePatchRequest recipePatchRequest) {
+        return RecipePatchDTO.builder()
+                .name(recipePatchRequest.getName())
+                .instructions(recipePatchRequest.getInstructions())
+                .servingsNumber(recipePatchRequest.getServingsNumber())
+                .ingredients(recipePatchRequest.getIngredients() == null ? null
+                        : getIngredientRecipeDTOs(recipePatchRequest.getIngredients()))
+                .build();
+    }
+
+    private static List<IngredientRecipeDTO> getIngredientRecipeDTOs(List<RecipeIngredientRequest> ingredients) {
+        return CollectionUtils.emptyIfNull(ingredients)
                 .stream()
                 .map(ingredient -> IngredientRecipeDTO.builder()
                         .ingredientId(ingredient.getIngredientId())
@@ -43,13 +185,5 @@ public final class RecipeUtil {
                         .measurementUnitId(ingredient.getMeasurementUnitId())
                         .build())
                 .toList();
-
-        return RecipeDTO.builder()
-                .name(recipeRequest.getName())
-                .instructions(recipeRequest.getInstructions())
-                .servingsNumber(recipeRequest.getServingsNumber())
-                .ingredients(ingredients)
-                .build();
     }
-
 }
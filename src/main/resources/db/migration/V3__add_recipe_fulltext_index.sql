@@ -0,0 +1,2 @@
+ALTER TABLE `recipe`
+    ADD FULLTEXT INDEX `recipe_fulltext_idx` (`name`, `instructions`);
@@ -0,0 +1,26 @@
+CREATE TABLE `recipe_search`
+(
+    `id`               int          NOT NULL,
+    `name`             varchar(120) NOT NULL,
+    `instructions`     varchar(500) NOT NULL,
+    `servings_number`  int          NOT NULL,
+    `recipe_type`      varchar(50)  NOT NULL,
+    `creation_date`    datetime     NOT NULL,
+    `updated_date`     datetime NULL,
+    `ingredient_ids`   json         NOT NULL,
+    `ingredient_names` json         NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY                `recipe_search_filter_idx` (`recipe_type`, `servings_number`, `name`, `id`),
+    KEY                `recipe_search_name_idx` (`name`, `id`),
+    FULLTEXT KEY       `recipe_search_fulltext_idx` (`name`, `instructions`),
+    CONSTRAINT `recipe_search_recipe_id` FOREIGN KEY (`id`) REFERENCES `recipe` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb3;
+
+INSERT INTO recipe_search (id, name, instructions, servings_number, recipe_type, creation_date, updated_date,
+                           ingredient_ids, ingredient_names)
+SELECT rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+       JSON_ARRAYAGG(ingxrp.ingredient_id), JSON_ARRAYAGG(UPPER(ing.name))
+FROM recipe as rp
+INNER JOIN ingredient_recipe as ingxrp on rp.id = ingxrp.recipe_id
+INNER JOIN ingredient as ing on ing.id = ingxrp.ingredient_id
+GROUP BY rp.id;
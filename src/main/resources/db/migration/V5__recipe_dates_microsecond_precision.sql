@@ -0,0 +1,15 @@
+UPDATE `recipe`
+SET `updated_date` = `creation_date`
+WHERE `updated_date` IS NULL;
+
+ALTER TABLE `recipe`
+    MODIFY `creation_date` datetime(6) NOT NULL,
+    MODIFY `updated_date` datetime(6) NOT NULL;
+
+UPDATE `recipe_search`
+SET `updated_date` = `creation_date`
+WHERE `updated_date` IS NULL;
+
+ALTER TABLE `recipe_search`
+    MODIFY `creation_date` datetime(6) NOT NULL,
+    MODIFY `updated_date` datetime(6) NOT NULL;
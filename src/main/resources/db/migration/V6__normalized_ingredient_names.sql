@@ -0,0 +1,7 @@
+ALTER TABLE `ingredient`
+    ADD COLUMN `normalized_name` varchar(120) COLLATE utf8mb3_bin GENERATED ALWAYS AS (UPPER(TRIM(`name`))) STORED NOT NULL,
+    ADD KEY `ingredient_normalized_name_idx` (`normalized_name`);
+
+ALTER TABLE `recipe_search`
+    DROP COLUMN `ingredient_names`,
+    ADD KEY `recipe_search_ingredient_ids_idx` ((CAST(`ingredient_ids` AS UNSIGNED ARRAY)));
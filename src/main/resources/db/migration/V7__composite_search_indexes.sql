@@ -0,0 +1,18 @@
+ALTER TABLE `ingredient_recipe`
+    ADD KEY `ingredient_recipe_recipe_ingredient_idx` (`recipe_id`, `ingredient_id`),
+    ADD KEY `ingredient_recipe_ingredient_recipe_idx` (`ingredient_id`, `recipe_id`);
+
+ALTER TABLE `ingredient_recipe`
+    DROP KEY `recipe_id_idx`,
+    DROP KEY `ingredient_id_idx`;
+
+ALTER TABLE `recipe`
+    ADD KEY `recipe_type_servings_idx` (`recipe_type`, `servings_number`);
+
+ALTER TABLE `recipe_search`
+    DROP KEY `recipe_search_filter_idx`,
+    DROP KEY `recipe_search_name_idx`,
+    ADD KEY `recipe_search_name_idx` (`name` DESC, `id`),
+    ADD KEY `recipe_search_type_name_idx` (`recipe_type`, `name` DESC, `id`),
+    ADD KEY `recipe_search_servings_name_idx` (`servings_number`, `name` DESC, `id`),
+    ADD KEY `recipe_search_filter_idx` (`recipe_type`, `servings_number`, `name` DESC, `id`);
@@ -0,0 +1,71 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipePatchDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non blocking counterpart of {@link com.recipes.demo.service.IRecipeService}, with the same arguments and results
+ * wrapped in Mono or Flux. Errors are the same RecipeException subclasses, signalled through the publisher.
+ */
+public interface IReactiveRecipeService {
+
+    Mono<RecipeDTO> saveRecipe(RecipeDTO recipeDTO);
+
+    Mono<RecipeDTO> updateRecipe(Long recipeId, RecipeDTO recipeDTO);
+
+    Mono<RecipeDTO> patchRecipe(Long recipeId, RecipePatchDTO recipePatchDTO);
+
+    Mono<BulkRecipeResponse> importRecipes(List<RecipeDTO> recipeDTOs);
+
+    Mono<Void> deleteRecipe(Long recipeId);
+
+    Mono<PaginatedRecipeResponse> getRecipes(Pageable pageable,
+                                             Boolean isVegetarian,
+                                             List<String> includedIngredients,
+                                             List<String> excludedIngredients,
+                                             String instructionKeyword,
+                                             Integer servings,
+                                             CountMode countMode,
+                                             boolean facets);
+
+    /**
+     * Streams the recipes of one page as they are read, without count.
+     */
+    Flux<RecipeDTO> streamRecipes(Pageable pageable,
+                                  Boolean isVegetarian,
+                                  List<String> includedIngredients,
+                                  List<String> excludedIngredients,
+                                  String instructionKeyword,
+                                  Integer servings);
+
+    Mono<PaginatedRecipeResponse> getRecipesAfter(String after,
+                                                  int size,
+                                                  Sort sort,
+                                                  Boolean isVegetarian,
+                                                  List<String> includedIngredients,
+                                                  List<String> excludedIngredients,
+                                                  String instructionKeyword,
+                                                  Integer servings);
+
+    Flux<RecipeDTO> exportRecipes();
+
+    Mono<RecipeDTO> getRecipeById(Long recipeId);
+
+    /**
+     * Completes empty when the recipe does not exist.
+     */
+    Mono<LocalDateTime> getRecipeUpdatedDate(Long recipeId);
+
+    Mono<BatchRecipeResponse> getRecipesByIds(List<Long> recipeIds);
+}
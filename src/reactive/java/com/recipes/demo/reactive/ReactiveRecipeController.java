@@ -0,0 +1,163 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.endpoint.RecipePatchRequest;
+import com.recipes.demo.model.endpoint.RecipeRequest;
+import com.recipes.demo.util.RecipeUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.Nullable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The /recipe endpoints of {@link com.recipes.demo.controller.RecipeController} on WebFlux, active with the reactive
+ * profile. Requests and responses are the same, GET /recipe additionally streams the page as newline-delimited JSON
+ * when asked for with Accept: application/x-ndjson.
+ */
+@Tag(name = "Recipe", description = "Recipe operations")
+@RestController
+@Profile("reactive")
+@RequestMapping("/recipe")
+public class ReactiveRecipeController {
+
+    private final IReactiveRecipeService recipeService;
+
+    public ReactiveRecipeController(IReactiveRecipeService recipeService) {
+        this.recipeService = recipeService;
+    }
+
+    @Operation(summary = "Get recipe list")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<PaginatedRecipeResponse>> getRecipes(@PageableDefault(size = 20)
+                                                                    @SortDefault.SortDefaults({
+                                                                            @SortDefault(sort = "name", direction = Sort.Direction.DESC),
+                                                                            @SortDefault(sort = "id", direction = Sort.Direction.ASC)
+                                                                    }) Pageable pageable,
+                                                                    @Nullable @RequestParam Boolean isVegetarian,
+                                                                    @Nullable @RequestParam List<String> includedIngredients,
+                                                                    @Nullable @RequestParam List<String> excludedIngredients,
+                                                                    @Nullable @RequestParam String instructionKeyword,
+                                                                    @Nullable @RequestParam Integer servings,
+                                                                    @Nullable @RequestParam String after,
+                                                                    @RequestParam(defaultValue = "EXACT") CountMode count,
+                                                                    @RequestParam(defaultValue = "false") boolean facets) {
+        Mono<PaginatedRecipeResponse> response = after != null
+                ? this.recipeService.getRecipesAfter(after, pageable.getPageSize(), pageable.getSort(), isVegetarian,
+                includedIngredients, excludedIngredients, instructionKeyword, servings)
+                : this.recipeService.getRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients,
+                instructionKeyword, servings, count, facets);
+        // A matching If-None-Match turns this into a 304 without a body
+        return response.map(page -> ResponseEntity.ok()
+                .eTag(RecipeUtil.getRecipePageETag(page))
+                .body(page));
+    }
+
+    @Operation(summary = "Stream a page of recipes as newline-delimited JSON")
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecipeDTO> streamRecipes(@PageableDefault(size = 20)
+                                         @SortDefault.SortDefaults({
+                                                 @SortDefault(sort = "name", direction = Sort.Direction.DESC),
+                                                 @SortDefault(sort = "id", direction = Sort.Direction.ASC)
+                                         }) Pageable pageable,
+                                         @Nullable @RequestParam Boolean isVegetarian,
+                                         @Nullable @RequestParam List<String> includedIngredients,
+                                         @Nullable @RequestParam List<String> excludedIngredients,
+                                         @Nullable @RequestParam String instructionKeyword,
+                                         @Nullable @RequestParam Integer servings) {
+        return this.recipeService.streamRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients,
+                instructionKeyword, servings);
+    }
+
+    @Operation(summary = "Save a recipe")
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<RecipeDTO> save(@RequestBody RecipeRequest recipeRequest) {
+        return this.recipeService.saveRecipe(RecipeUtil.getRecipeDTO(recipeRequest));
+    }
+
+    @Operation(summary = "Import a list of recipes")
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BulkRecipeResponse> importRecipes(@RequestBody List<RecipeRequest> recipeRequests) {
+        return this.recipeService.importRecipes(recipeRequests.stream().map(RecipeUtil::getRecipeDTO).toList());
+    }
+
+    @Operation(summary = "Update a recipe")
+    @PutMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<RecipeDTO> update(@Parameter(description = "Recipe Id")
+                                  @PathVariable("id") final Long recipeId, @RequestBody RecipeRequest recipeRequest) {
+        return this.recipeService.updateRecipe(recipeId, RecipeUtil.getRecipeDTO(recipeRequest));
+    }
+
+    @Operation(summary = "Partially update a recipe")
+    @PatchMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE,
+            consumes = {RecipeUtil.MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<RecipeDTO> patch(@Parameter(description = "Recipe Id")
+                                 @PathVariable("id") final Long recipeId,
+                                 @RequestBody RecipePatchRequest recipePatchRequest) {
+        return this.recipeService.patchRecipe(recipeId, RecipeUtil.getRecipePatchDTO(recipePatchRequest));
+    }
+
+    @Operation(summary = "Delete a recipe")
+    @DeleteMapping(value = "/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> delete(@Parameter(description = "Recipe Id")
+                             @PathVariable("id") final Long recipeId) {
+        return this.recipeService.deleteRecipe(recipeId);
+    }
+
+    @Operation(summary = "Export every recipe as newline-delimited JSON")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RecipeDTO> exportRecipes() {
+        return this.recipeService.exportRecipes();
+    }
+
+    @Operation(summary = "Get several recipes by id")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BatchRecipeResponse> getRecipesByIds(@Parameter(description = "Recipe ids, at most 500")
+                                                     @RequestParam List<Long> ids) {
+        return this.recipeService.getRecipesByIds(ids);
+    }
+
+    @Operation(summary = "Get a recipe")
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<RecipeDTO>> getRecipeById(@Parameter(description = "Recipe Id")
+                                                         @PathVariable("id") final Long recipeId,
+                                                         ServerWebExchange exchange) {
+        Mono<Boolean> notModified = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH) == null
+                ? Mono.just(false)
+                : this.recipeService.getRecipeUpdatedDate(recipeId)
+                .map(updatedDate -> exchange.checkNotModified(RecipeUtil.getRecipeETag(recipeId, updatedDate)))
+                .defaultIfEmpty(false);
+        return notModified.flatMap(unchanged -> unchanged
+                // The 304 status and ETag header are already set
+                ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build())
+                : this.recipeService.getRecipeById(recipeId).map(recipeDTO -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (recipeDTO.getUpdatedDate() != null) {
+                        response.eTag(RecipeUtil.getRecipeETag(recipeId, recipeDTO.getUpdatedDate()));
+                    }
+                    return response.body(recipeDTO);
+                }));
+    }
+}
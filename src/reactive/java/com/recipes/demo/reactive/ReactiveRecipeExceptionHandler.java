@@ -0,0 +1,41 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.exception.ErrorInfo;
+import com.recipes.demo.exception.IngredientNotFoundException;
+import com.recipes.demo.exception.InvalidInputException;
+import com.recipes.demo.exception.RecipeException;
+import com.recipes.demo.exception.RecipeNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+/**
+ * Same status codes and error bodies as {@link com.recipes.demo.exception.RecipeExceptionHandler}, for the WebFlux
+ * controller.
+ */
+@Slf4j
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveRecipeExceptionHandler {
+
+    @ExceptionHandler(value = {RecipeNotFoundException.class, IngredientNotFoundException.class})
+    protected ResponseEntity<Object> handlerNotFoundException(RecipeException ex) {
+        log.warn(ex.getAdditionalData().toString());
+        return new ResponseEntity<>(ex.getAdditionalData(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(value = {InvalidInputException.class})
+    protected ResponseEntity<Object> handlerBadRequestException(RecipeException ex) {
+        log.warn(ex.getAdditionalData().toString());
+        return new ResponseEntity<>(ex.getAdditionalData(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(value = {RuntimeException.class})
+    protected ResponseEntity<Object> handlerGeneralException(RuntimeException ex) {
+        log.warn(ex.toString());
+        return new ResponseEntity<>(new ErrorInfo("Internal Error", ex.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
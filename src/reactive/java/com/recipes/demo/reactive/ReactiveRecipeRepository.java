@@ -0,0 +1,207 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.cache.RecipeSearchCache;
+import com.recipes.demo.model.IngredientRecipeDTO;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.repository.entity.Recipe;
+import com.recipes.demo.util.RecipeUtil;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * R2DBC reads of the recipe API. Recipes come back joined with their ingredient rows, one row per ingredient, and are
+ * regrouped while the rows stream in, so a page or the whole export is one statement whose rows the driver only
+ * fetches as fast as the subscriber asks for them. Search filters are the normalised ones of {@link RecipeSearchCache},
+ * and only the present ones are rendered into the WHERE clause.
+ */
+@SuppressWarnings("SqlDialectInspection")
+@Repository
+@Profile("reactive")
+public class ReactiveRecipeRepository {
+
+    private static final String RECIPE_COLUMNS = """
+            rp.id, rp.name, rp.instructions, rp.servings_number, rp.recipe_type, rp.creation_date, rp.updated_date,
+            ingxrp.ingredient_id, ing.name as ingredient_name, ingxrp.measurement_unit_id, ingxrp.quantity
+            """;
+    private static final String SELECT_RECIPES_WITH_INGREDIENTS = "SELECT " + RECIPE_COLUMNS + """
+            FROM recipe as rp
+            LEFT JOIN ingredient_recipe as ingxrp on rp.id=ingxrp.recipe_id
+            LEFT JOIN ingredient as ing on ing.id=ingxrp.ingredient_id
+            """;
+    private static final String SEARCH_COLUMNS =
+            "rs.id, rs.name, rs.instructions, rs.servings_number, rs.recipe_type, rs.creation_date, rs.updated_date";
+    private static final String PAGE_COLUMNS = """
+            page.id, page.name, page.instructions, page.servings_number, page.recipe_type, page.creation_date,
+            page.updated_date, ingxrp.ingredient_id, ing.name as ingredient_name, ingxrp.measurement_unit_id, ingxrp.quantity
+            """;
+    private static final String SELECT_UPDATED_DATE = "SELECT updated_date FROM recipe WHERE id = :recipeId";
+    private static final String RELEVANCE = "MATCH(rs.name, rs.instructions) AGAINST (:instructionKeyword IN BOOLEAN MODE)";
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "name", "name",
+            "servingsNumber", "servings_number",
+            "creationDate", "creation_date",
+            "updatedDate", "updated_date",
+            RecipeUtil.RELEVANCE_SORT, "relevance");
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveRecipeRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public static boolean isSortable(Sort sort) {
+        return sort.stream().allMatch(order -> SORT_COLUMNS.containsKey(order.getProperty()));
+    }
+
+    public Mono<RecipeDTO> findById(Long recipeId) {
+        return toRecipes(databaseClient.sql(SELECT_RECIPES_WITH_INGREDIENTS + "WHERE rp.id = :recipeId ORDER BY ingxrp.id")
+                .bind("recipeId", recipeId))
+                .next();
+    }
+
+    public Mono<LocalDateTime> findUpdatedDateById(Long recipeId) {
+        return databaseClient.sql(SELECT_UPDATED_DATE)
+                .bind("recipeId", recipeId)
+                .map(row -> row.get("updated_date", LocalDateTime.class))
+                .one();
+    }
+
+    /**
+     * Streams every recipe with its ingredients in id order.
+     */
+    public Flux<RecipeDTO> findAll() {
+        return toRecipes(databaseClient.sql(SELECT_RECIPES_WITH_INGREDIENTS + "ORDER BY rp.id, ingxrp.id"));
+    }
+
+    /**
+     * Streams one page of matching recipes plus, when there is one, the first recipe of the next page so the caller
+     * can tell whether the page is the last. The sort must pass {@link #isSortable}, relevance needs a keyword.
+     */
+    public Flux<RecipeDTO> findPage(RecipeSearchCache.Filters filters, Pageable pageable) {
+        boolean sortByRelevance = pageable.getSort().getOrderFor(RecipeUtil.RELEVANCE_SORT) != null;
+        String sql = "SELECT " + PAGE_COLUMNS
+                + " FROM (SELECT " + SEARCH_COLUMNS + (sortByRelevance ? ", " + RELEVANCE + " as relevance" : "")
+                + " FROM recipe_search as rs" + where(filters)
+                + " ORDER BY " + orderBy(pageable.getSort(), "rs.")
+                + " LIMIT :limit OFFSET :offset) as page"
+                + " INNER JOIN ingredient_recipe as ingxrp on page.id=ingxrp.recipe_id"
+                + " INNER JOIN ingredient as ing on ing.id=ingxrp.ingredient_id"
+                + " ORDER BY " + orderBy(pageable.getSort(), "page.") + ", ingxrp.id";
+        return toRecipes(bind(databaseClient.sql(sql), filters)
+                .bind("limit", pageable.getPageSize() + 1)
+                .bind("offset", pageable.getOffset()));
+    }
+
+    public Mono<Long> count(RecipeSearchCache.Filters filters) {
+        return bind(databaseClient.sql("SELECT COUNT(*) as total FROM recipe_search as rs" + where(filters)), filters)
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    private static String where(RecipeSearchCache.Filters filters) {
+        StringJoiner where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        if (filters.recipeType() != null) {
+            where.add("rs.recipe_type = :recipeType");
+        }
+        if (!filters.includedIngredients().isEmpty()) {
+            where.add("JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:includedIngredientIds))");
+        }
+        if (!filters.excludedIngredients().isEmpty()) {
+            where.add("NOT JSON_OVERLAPS(rs.ingredient_ids, JSON_ARRAY(:excludedIngredientIds))");
+        }
+        if (!filters.instructionKeyword().isEmpty()) {
+            where.add(RELEVANCE);
+        }
+        if (filters.servings() != null) {
+            where.add("rs.servings_number = :servings");
+        }
+        return where.toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, RecipeSearchCache.Filters filters) {
+        if (filters.recipeType() != null) {
+            spec = spec.bind("recipeType", filters.recipeType());
+        }
+        if (!filters.includedIngredients().isEmpty()) {
+            spec = spec.bind("includedIngredientIds", filters.includedIngredientIds());
+        }
+        if (!filters.excludedIngredients().isEmpty()) {
+            spec = spec.bind("excludedIngredientIds", filters.excludedIngredientIds());
+        }
+        if (!filters.instructionKeyword().isEmpty()) {
+            spec = spec.bind("instructionKeyword", filters.instructionKeyword());
+        }
+        if (filters.servings() != null) {
+            spec = spec.bind("servings", filters.servings());
+        }
+        return spec;
+    }
+
+    /**
+     * Renders the sort over the given table alias with the id as tie breaker. Relevance is the select alias of the
+     * inner page query, which MySQL accepts in ORDER BY unqualified only.
+     */
+    private static String orderBy(Sort sort, String alias) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        sort.forEach(order -> {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            String expression = RecipeUtil.RELEVANCE_SORT.equals(order.getProperty()) && alias.equals("rs.")
+                    ? column : alias + column;
+            orderBy.add(expression + (order.isAscending() ? " ASC" : " DESC"));
+        });
+        orderBy.add(alias + "id ASC");
+        return orderBy.toString();
+    }
+
+    private record RecipeRow(Recipe recipe, IngredientRecipeDTO ingredient) {
+    }
+
+    private static Flux<RecipeDTO> toRecipes(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(ReactiveRecipeRepository::toRecipeRow)
+                .all()
+                .bufferUntilChanged(recipeRow -> recipeRow.recipe().getId())
+                .map(ReactiveRecipeRepository::toRecipeDTO);
+    }
+
+    private static RecipeRow toRecipeRow(Readable row) {
+        Recipe recipe = Recipe.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .instructions(row.get("instructions", String.class))
+                .servingsNumber(row.get("servings_number", Integer.class))
+                .recipeType(row.get("recipe_type", String.class))
+                .creationDate(row.get("creation_date", LocalDateTime.class))
+                .updatedDate(row.get("updated_date", LocalDateTime.class))
+                .build();
+        Long ingredientId = row.get("ingredient_id", Long.class);
+        Float quantity = row.get("quantity", Float.class);
+        IngredientRecipeDTO ingredient = ingredientId == null ? null : IngredientRecipeDTO.builder()
+                .ingredientId(ingredientId)
+                .ingredientName(row.get("ingredient_name", String.class))
+                .measurementUnitId(row.get("measurement_unit_id", Long.class))
+                .quantity(quantity == null ? 0 : quantity)
+                .build();
+        return new RecipeRow(recipe, ingredient);
+    }
+
+    private static RecipeDTO toRecipeDTO(List<RecipeRow> recipeRows) {
+        List<IngredientRecipeDTO> ingredients = recipeRows.stream()
+                .map(RecipeRow::ingredient)
+                .filter(Objects::nonNull)
+                .toList();
+        return RecipeUtil.getBuildRecipeDTO(recipeRows.get(0).recipe(), ingredients);
+    }
+}
@@ -0,0 +1,294 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.cache.RecipeCache;
+import com.recipes.demo.cache.RecipeIngredientIndex;
+import com.recipes.demo.cache.RecipeSearchCache;
+import com.recipes.demo.cache.ReferenceDataCache;
+import com.recipes.demo.datasource.ReplicaCacheGuard;
+import com.recipes.demo.exception.ErrorCode;
+import com.recipes.demo.exception.ErrorInfo;
+import com.recipes.demo.exception.InvalidInputException;
+import com.recipes.demo.exception.RecipeNotFoundException;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.CountMode;
+import com.recipes.demo.model.PaginatedRecipeResponse;
+import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipePatchDTO;
+import com.recipes.demo.model.RecipeType;
+import com.recipes.demo.service.IRecipeService;
+import com.recipes.demo.util.RecipeUtil;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static com.recipes.demo.util.RecipeUtil.*;
+
+/**
+ * Reads recipes through R2DBC and the in-memory caches without blocking. Writes, facets, keyset pages and batch
+ * reads go to the blocking {@link IRecipeService} on the bounded elastic scheduler, so validation, the recipe_search
+ * projection, the ingredient index and the cache invalidations stay in one transactional implementation.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveRecipeService implements IReactiveRecipeService {
+
+    private final ReactiveRecipeRepository reactiveRecipeRepository;
+    private final IRecipeService recipeService;
+    private final RecipeCache recipeCache;
+    private final RecipeSearchCache recipeSearchCache;
+    private final ReferenceDataCache referenceDataCache;
+    private final RecipeIngredientIndex recipeIngredientIndex;
+    private final ReplicaCacheGuard replicaCacheGuard;
+
+    public ReactiveRecipeService(ReactiveRecipeRepository reactiveRecipeRepository,
+                                 IRecipeService recipeService,
+                                 RecipeCache recipeCache,
+                                 RecipeSearchCache recipeSearchCache,
+                                 ReferenceDataCache referenceDataCache,
+                                 RecipeIngredientIndex recipeIngredientIndex,
+                                 ReplicaCacheGuard replicaCacheGuard) {
+        this.reactiveRecipeRepository = reactiveRecipeRepository;
+        this.recipeService = recipeService;
+        this.recipeCache = recipeCache;
+        this.recipeSearchCache = recipeSearchCache;
+        this.referenceDataCache = referenceDataCache;
+        this.recipeIngredientIndex = recipeIngredientIndex;
+        this.replicaCacheGuard = replicaCacheGuard;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<RecipeDTO> saveRecipe(RecipeDTO recipeDTO) {
+        return blocking(() -> recipeService.saveRecipe(recipeDTO));
+    }
+
+    @Override
+    public Mono<RecipeDTO> updateRecipe(Long recipeId, RecipeDTO recipeDTO) {
+        return blocking(() -> recipeService.updateRecipe(recipeId, recipeDTO));
+    }
+
+    @Override
+    public Mono<RecipeDTO> patchRecipe(Long recipeId, RecipePatchDTO recipePatchDTO) {
+        return blocking(() -> recipeService.patchRecipe(recipeId, recipePatchDTO));
+    }
+
+    @Override
+    public Mono<BulkRecipeResponse> importRecipes(List<RecipeDTO> recipeDTOs) {
+        return blocking(() -> recipeService.importRecipes(recipeDTOs));
+    }
+
+    @Override
+    public Mono<Void> deleteRecipe(Long recipeId) {
+        return blocking(() -> {
+            recipeService.deleteRecipe(recipeId);
+            return recipeId;
+        }).then();
+    }
+
+    /**
+     * Serves the page from the search cache, otherwise runs the page query and, unless the count mode is NONE, the
+     * count query concurrently.
+     */
+    @Override
+    public Mono<PaginatedRecipeResponse> getRecipes(Pageable pageable,
+                                                    Boolean isVegetarian,
+                                                    List<String> includedIngredients,
+                                                    List<String> excludedIngredients,
+                                                    String instructionKeyword,
+                                                    Integer servings,
+                                                    CountMode countMode,
+                                                    boolean facets) {
+        if (facets) {
+            return blocking(() -> recipeService.getRecipes(pageable, isVegetarian, includedIngredients,
+                    excludedIngredients, instructionKeyword, servings, countMode, true));
+        }
+        return getFilters(isVegetarian, includedIngredients, excludedIngredients, instructionKeyword, servings)
+                .zipWith(Mono.fromCallable(() -> getSearchPageable(pageable, instructionKeyword)))
+                .flatMap(search -> {
+                    RecipeSearchCache.Filters filters = search.getT1();
+                    Pageable searchPageable = search.getT2();
+                    RecipeSearchCache.Key searchKey = recipeSearchCache.key(filters, searchPageable, countMode, false);
+                    long readStart = replicaCacheGuard.startRead();
+                    Optional<PaginatedRecipeResponse> cachedSearch = recipeSearchCache.get(searchKey);
+                    if (cachedSearch.isPresent()) {
+                        return Mono.just(cachedSearch.get());
+                    }
+                    return Mono.zip(reactiveRecipeRepository.findPage(filters, searchPageable).collectList(),
+                                    countRecipes(filters, countMode, readStart))
+                            .map(pageAndCount -> {
+                                List<RecipeDTO> recipes = pageAndCount.getT1();
+                                boolean hasNext = recipes.size() > searchPageable.getPageSize();
+                                SliceImpl<RecipeDTO> page = new SliceImpl<>(hasNext
+                                        ? recipes.subList(0, searchPageable.getPageSize()) : recipes, searchPageable, hasNext);
+                                PaginatedRecipeResponse response = pageAndCount.getT2()
+                                        .map(count -> new PaginatedRecipeResponse(page, count.total(), count.estimated()))
+                                        .orElseGet(() -> new PaginatedRecipeResponse(page, null, false));
+                                if (replicaCacheGuard.canCache(readStart)) {
+                                    recipeSearchCache.put(searchKey, response);
+                                }
+                                return response;
+                            });
+                });
+    }
+
+    private record RecipeCount(long total, boolean estimated) {
+    }
+
+    /**
+     * Counts the search results as the blocking search does. Without a keyword the in-memory index gives the exact
+     * total, with one it gives the ESTIMATE, an upper bound ignoring the keyword, and an exact count runs one count
+     * query per filter set.
+     */
+    private Mono<Optional<RecipeCount>> countRecipes(RecipeSearchCache.Filters filters, CountMode countMode, long readStart) {
+        if (countMode == CountMode.NONE) {
+            return Mono.just(Optional.empty());
+        }
+        boolean filterByKeyword = !filters.instructionKeyword().isEmpty();
+        if (!filterByKeyword || countMode == CountMode.ESTIMATE) {
+            OptionalLong indexCount = recipeIngredientIndex.countRecipes(!filters.includedIngredients().isEmpty(),
+                    filters.includedIngredientIds(),
+                    filters.excludedIngredientIds(),
+                    filters.recipeType(), filters.servings());
+            if (indexCount.isPresent()) {
+                return Mono.just(Optional.of(new RecipeCount(indexCount.getAsLong(), filterByKeyword)));
+            }
+        }
+        Optional<Long> cachedCount = recipeSearchCache.getCount(filters);
+        if (cachedCount.isPresent()) {
+            return Mono.just(Optional.of(new RecipeCount(cachedCount.get(), false)));
+        }
+        return reactiveRecipeRepository.count(filters)
+                .doOnNext(total -> {
+                    if (replicaCacheGuard.canCache(readStart)) {
+                        recipeSearchCache.putCount(filters, total);
+                    }
+                })
+                .map(total -> Optional.of(new RecipeCount(total, false)));
+    }
+
+    @Override
+    public Flux<RecipeDTO> streamRecipes(Pageable pageable,
+                                         Boolean isVegetarian,
+                                         List<String> includedIngredients,
+                                         List<String> excludedIngredients,
+                                         String instructionKeyword,
+                                         Integer servings) {
+        return getFilters(isVegetarian, includedIngredients, excludedIngredients, instructionKeyword, servings)
+                .zipWith(Mono.fromCallable(() -> getSearchPageable(pageable, instructionKeyword)))
+                .flatMapMany(search -> reactiveRecipeRepository.findPage(search.getT1(), search.getT2())
+                        .take(search.getT2().getPageSize()));
+    }
+
+    @Override
+    public Mono<PaginatedRecipeResponse> getRecipesAfter(String after,
+                                                         int size,
+                                                         Sort sort,
+                                                         Boolean isVegetarian,
+                                                         List<String> includedIngredients,
+                                                         List<String> excludedIngredients,
+                                                         String instructionKeyword,
+                                                         Integer servings) {
+        return blocking(() -> recipeService.getRecipesAfter(after, size, sort, isVegetarian, includedIngredients,
+                excludedIngredients, instructionKeyword, servings));
+    }
+
+    @Override
+    public Flux<RecipeDTO> exportRecipes() {
+        return reactiveRecipeRepository.findAll();
+    }
+
+    @Override
+    public Mono<RecipeDTO> getRecipeById(Long recipeId) {
+        long readStart = replicaCacheGuard.startRead();
+        long cacheGeneration = recipeCache.generation();
+        return Mono.justOrEmpty(recipeCache.get(recipeId))
+                .switchIfEmpty(Mono.defer(() -> reactiveRecipeRepository.findById(recipeId).doOnNext(recipeDTO -> {
+                    if (replicaCacheGuard.canCache(readStart)) {
+                        recipeCache.put(recipeDTO, cacheGeneration);
+                    }
+                })))
+                .switchIfEmpty(Mono.error(() -> new RecipeNotFoundException(new ErrorInfo(
+                        ErrorCode.RECIPE_NOT_FOUND_CODE.getCode(), String.format(RECIPE_NOT_FOUND, recipeId)))));
+    }
+
+    @Override
+    public Mono<LocalDateTime> getRecipeUpdatedDate(Long recipeId) {
+        return recipeCache.get(recipeId)
+                .map(recipeDTO -> Mono.justOrEmpty(recipeDTO.getUpdatedDate()))
+                .orElseGet(() -> reactiveRecipeRepository.findUpdatedDateById(recipeId));
+    }
+
+    @Override
+    public Mono<BatchRecipeResponse> getRecipesByIds(List<Long> recipeIds) {
+        return blocking(() -> recipeService.getRecipesByIds(recipeIds));
+    }
+
+    /**
+     * Ingredient names are resolved to ids from the reference data cache, names it does not hold are read from
+     * MySQL, so the resolution runs on the bounded elastic scheduler.
+     */
+    private Mono<RecipeSearchCache.Filters> getFilters(Boolean isVegetarian,
+                                                       List<String> includedIngredients,
+                                                       List<String> excludedIngredients,
+                                                       String instructionKeyword,
+                                                       Integer servings) {
+        String recipeType = isVegetarian == null ? null
+                : (isVegetarian ? RecipeType.VEGETARIAN : RecipeType.NON_VEGETARIAN).getLabel();
+        return blocking(() -> {
+            List<String> includedIngredientsParam = getValidateIngredientFilter(includedIngredients);
+            List<String> excludedIngredientsParam = getValidateIngredientFilter(excludedIngredients);
+            return recipeSearchCache.filters(recipeType,
+                    includedIngredientsParam,
+                    excludedIngredientsParam,
+                    getIngredientIdsByName(includedIngredientsParam),
+                    getIngredientIdsByName(excludedIngredientsParam),
+                    instructionKeyword == null ? "" : RecipeUtil.getFullTextQuery(instructionKeyword),
+                    servings);
+        });
+    }
+
+    private Set<Long> getIngredientIdsByName(List<String> ingredientNames) {
+        return ingredientNames.isEmpty() ? Set.of() : referenceDataCache.getIngredientIdsByName(ingredientNames);
+    }
+
+    private static List<String> getValidateIngredientFilter(List<String> ingredientsToFilter) throws InvalidInputException {
+        if (ingredientsToFilter != null && MAXIMUM_NUMBER_INGREDIENTS_FILTER < ingredientsToFilter.size()) {
+            String errorMessage = String.format(MAXIMUM_NUMBER_INGREDIENTS_FILTER_MESSAGE, MAXIMUM_NUMBER_INGREDIENTS_FILTER);
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), errorMessage));
+        }
+        return CollectionUtils.emptyIfNull(ingredientsToFilter).stream().map(RecipeUtil::normalizeIngredientName).toList();
+    }
+
+    /**
+     * Falls back to the default sort when relevance is asked for without a keyword, as the blocking search does,
+     * and rejects sort properties the search cannot order by.
+     */
+    private static Pageable getSearchPageable(Pageable pageable, String instructionKeyword) throws InvalidInputException {
+        boolean hasKeyword = instructionKeyword != null && !RecipeUtil.getFullTextQuery(instructionKeyword).isEmpty();
+        if (pageable.getSort().getOrderFor(RELEVANCE_SORT) != null && !hasKeyword) {
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), DEFAULT_RECIPE_SORT);
+        }
+        if (!ReactiveRecipeRepository.isSortable(pageable.getSort())) {
+            throw new InvalidInputException(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), INVALID_SORT));
+        }
+        return pageable;
+    }
+}
@@ -0,0 +1,118 @@
+package com.recipes.demo.reactive;
+
+import com.recipes.demo.model.RecipeDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@Testcontainers(disabledWithoutDocker = true)
+public class ReactiveRecipeApiTest {
+
+    private static final String RECIPE_JSON = """
+            {
+              "name": "Reactive Pasta",
+              "instructions": "Boil the pasta and serve",
+              "servingsNumber": 2,
+              "ingredients": [
+                {"ingredientId": 1, "quantity": 250, "measurementUnitId": 1},
+                {"ingredientId": 2, "quantity": 1, "measurementUnitId": 2}
+              ]
+            }
+            """;
+
+    @Container
+    private static final MySQLContainer<?> MY_SQL_CONTAINER = new MySQLContainer<>("mysql:8.0-debian")
+            .withUsername("test")
+            .withPassword("test")
+            .withDatabaseName("recipedb");
+
+    @DynamicPropertySource
+    static void mySqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MY_SQL_CONTAINER::getJdbcUrl);
+        registry.add("spring.datasource.username", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.datasource.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.flyway.url", MY_SQL_CONTAINER::getJdbcUrl);
+        registry.add("spring.flyway.user", MY_SQL_CONTAINER::getUsername);
+        registry.add("spring.flyway.password", MY_SQL_CONTAINER::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:mysql://" + MY_SQL_CONTAINER.getHost() + ":"
+                + MY_SQL_CONTAINER.getMappedPort(MySQLContainer.MYSQL_PORT) + "/recipedb");
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Long recipeId;
+
+    @BeforeEach
+    public void saveRecipe() {
+        RecipeDTO savedRecipe = webTestClient.post().uri("/recipe")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(RECIPE_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CREATED)
+                .expectBody(RecipeDTO.class)
+                .returnResult().getResponseBody();
+        Assertions.assertNotNull(savedRecipe);
+        recipeId = savedRecipe.getId();
+    }
+
+    @Test
+    public void testGetRecipeById() {
+        webTestClient.get().uri("/recipe/{id}", recipeId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Reactive Pasta")
+                .jsonPath("$.ingredients.length()").isEqualTo(2);
+    }
+
+    @Test
+    public void testGetUnknownRecipeReturnsNotFound() {
+        webTestClient.get().uri("/recipe/{id}", Long.MAX_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testGetRecipes() {
+        webTestClient.get().uri("/recipe?size=100&count=EXACT")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[?(@.id == " + recipeId + ")].name").isEqualTo("Reactive Pasta")
+                .jsonPath("$.totalElements").isNumber();
+    }
+
+    @Test
+    public void testExportRecipes() {
+        List<RecipeDTO> exportedRecipes = webTestClient.get().uri("/recipe/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(RecipeDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        Assertions.assertNotNull(exportedRecipes);
+        Assertions.assertTrue(exportedRecipes.stream().anyMatch(recipeDTO -> recipeId.equals(recipeDTO.getId())));
+    }
+}
@@ -2,38 +2,58 @@ package com.recipes.demo.controller;
 
 import com.recipes.demo.config.WebMvcConfig;
 import com.recipes.demo.exception.*;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BatchRecipeResult;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResult;
+import com.recipes.demo.model.IngredientFacet;
 import com.recipes.demo.model.PaginatedRecipeResponse;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipeFacets;
 import com.recipes.demo.model.RecipeType;
 import com.recipes.demo.service.impl.RecipeService;
+import com.recipes.demo.threads.AsyncRequestConfig;
 import com.recipes.demo.util.RecipeUtil;
 import com.recipes.demo.util.TestUtil;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static com.recipes.demo.util.RecipeUtil.RECIPE_INVALID_INPUT;
 import static com.recipes.demo.util.TestUtil.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
 @SpringBootTest(
         webEnvironment = SpringBootTest.WebEnvironment.MOCK,
-        classes = {RecipeController.class, RecipeExceptionHandler.class, WebMvcConfig.class})
+        classes = {RecipeController.class, RecipeExceptionHandler.class, WebMvcConfig.class, AsyncRequestConfig.class,
+                JacksonAutoConfiguration.class})
 @AutoConfigureMockMvc
 @EnableWebMvc
 public class RecipeControllerTest {
@@ -79,6 +99,115 @@ public class RecipeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.additionalData.message").value("Invalid recipe input fields"));
     }
 
+    @Test
+    public void testImportRecipesSuccessfully() throws Exception {
+        BulkRecipeResult created = BulkRecipeResult.builder()
+                .index(0).name("Spaghetti").status(BulkRecipeResult.Status.CREATED).id(1L).build();
+        BulkRecipeResult failed = BulkRecipeResult.builder()
+                .index(1).name("Spaghetti").status(BulkRecipeResult.Status.FAILED)
+                .error(new ErrorInfo(ErrorCode.RECIPE_BAD_REQUEST.getCode(), "Recipe Spaghetti already exists")).build();
+        Mockito.when(recipeService.importRecipes(any())).thenReturn(new BulkRecipeResponse(List.of(created, failed)));
+
+        mvc.perform(post("/recipe/bulk")
+                        .content("[" + RECIPE_REQUEST + "," + RECIPE_REQUEST + "]")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error.code").value(ErrorCode.RECIPE_BAD_REQUEST.getCode()));
+    }
+
+    @Test
+    public void testGetRecipeByIdReturnsStrongETag() throws Exception {
+        Long recipeId = 1L;
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setUpdatedDate(LocalDateTime.parse("2023-07-03T20:49:04.61"));
+        Mockito.when(recipeService.getRecipeById(eq(recipeId))).thenReturn(recipeDTO);
+
+        mvc.perform(get("/recipe/{id}", recipeId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-1688417344610000\""));
+    }
+
+    @Test
+    public void testGetRecipeByIdNotModifiedSkipsLoadingRecipe() throws Exception {
+        Long recipeId = 1L;
+        LocalDateTime updatedDate = LocalDateTime.parse("2023-07-03T20:49:04.61");
+        Mockito.when(recipeService.getRecipeUpdatedDate(recipeId)).thenReturn(Optional.of(updatedDate));
+
+        mvc.perform(get("/recipe/{id}", recipeId)
+                        .header(HttpHeaders.IF_NONE_MATCH, RecipeUtil.getRecipeETag(recipeId, updatedDate))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        Mockito.verify(recipeService, Mockito.never()).getRecipeById(any());
+    }
+
+    @Test
+    public void testGetRecipeByIdWithStaleETagReturnsRecipe() throws Exception {
+        Long recipeId = 1L;
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setUpdatedDate(LocalDateTime.parse("2023-07-03T20:49:04.61"));
+        Mockito.when(recipeService.getRecipeUpdatedDate(recipeId)).thenReturn(Optional.of(recipeDTO.getUpdatedDate()));
+        Mockito.when(recipeService.getRecipeById(eq(recipeId))).thenReturn(recipeDTO);
+
+        mvc.perform(get("/recipe/{id}", recipeId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-1\"")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Spaghetti"));
+    }
+
+    @Test
+    public void testGetRecipeListNotModifiedWithWeakETag() throws Exception {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setUpdatedDate(LocalDateTime.parse("2023-07-03T20:49:04.61"));
+        PaginatedRecipeResponse pagedResponse = new PaginatedRecipeResponse(List.of(recipeDTO));
+        Mockito.when(recipeService.getRecipes(any(), any(), any(), any(), any(), any(), any(), anyBoolean())).thenReturn(pagedResponse);
+
+        String eTag = mvc.perform(get("/recipe").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertTrue(eTag.startsWith("W/"));
+
+        mvc.perform(get("/recipe")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        recipeDTO.setUpdatedDate(LocalDateTime.parse("2023-07-04T08:00:00"));
+        mvc.perform(get("/recipe")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testGetRecipesByIdsSuccessfully() throws Exception {
+        BatchRecipeResult found = BatchRecipeResult.builder()
+                .id(1L).status(BatchRecipeResult.Status.FOUND).recipe(getDummyRecipeDTO()).build();
+        BatchRecipeResult notFound = BatchRecipeResult.builder()
+                .id(2L).status(BatchRecipeResult.Status.NOT_FOUND)
+                .error(new ErrorInfo(ErrorCode.RECIPE_NOT_FOUND_CODE.getCode(), "Recipe 2 - not found")).build();
+        Mockito.when(recipeService.getRecipesByIds(List.of(1L, 2L))).thenReturn(new BatchRecipeResponse(List.of(found, notFound)));
+
+        mvc.perform(get("/recipe/batch")
+                        .param("ids", "1,2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.found").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.notFound").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].recipe.name").value("Spaghetti"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].recipe").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error.code").value(ErrorCode.RECIPE_NOT_FOUND_CODE.getCode()));
+    }
+
     @Test
     public void testUpdateRecipeSuccessfully() throws Exception {
         Long recipeId = 1L;
@@ -103,6 +232,24 @@ public class RecipeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.instructions").value("Enjoy"));
     }
 
+    @Test
+    public void testPatchRecipeSuccessfully() throws Exception {
+        Long recipeId = 1L;
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setServingsNumber(6);
+
+        Mockito.when(recipeService.patchRecipe(eq(recipeId), Mockito.argThat(patch -> patch.getServingsNumber() == 6
+                && patch.getName() == null && patch.getIngredients() == null))).thenReturn(recipeDTO);
+
+        mvc.perform(patch("/recipe/{id}", recipeId)
+                        .content("{\"servingsNumber\": 6}")
+                        .contentType(RecipeUtil.MERGE_PATCH_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Spaghetti"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.servingsNumber").value(6));
+    }
+
     @Test
     public void testUpdateRecipeThrowRecipeNotFoundException() throws Exception {
         Long recipeId = 100L;
@@ -178,6 +325,32 @@ public class RecipeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.ingredients[2].quantity").value(1));
     }
 
+    @Test
+    public void testExportRecipesSuccessfully() throws Exception {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setId(1L);
+        AtomicReference<String> exportThread = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            exportThread.set(Thread.currentThread().getName());
+            Consumer<RecipeDTO> consumer = invocation.getArgument(0);
+            consumer.accept(recipeDTO);
+            consumer.accept(recipeDTO);
+            return null;
+        }).when(recipeService).exportRecipes(any());
+
+        MvcResult mvcResult = mvc.perform(get("/recipe/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(lines.length, 2);
+        Assertions.assertEquals(buildObjectMapper().readValue(lines[1], RecipeDTO.class).getIngredients().size(), 3);
+        Assertions.assertTrue(exportThread.get().startsWith("mvc-async-"));
+    }
+
     @Test
     public void testGetRecipeListSuccessfully() throws Exception {
         int page = 0;
@@ -194,7 +367,7 @@ public class RecipeControllerTest {
         recipeDTO.setCreationDate(createdDate);
         recipeDTO.setUpdatedDate(updatedDate);
         PaginatedRecipeResponse pagedResponse = new PaginatedRecipeResponse(List.of(recipeDTO));
-        Mockito.when(recipeService.getRecipes(any(), any(), any(), any(), any(), any()))
+        Mockito.when(recipeService.getRecipes(any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
                 .thenReturn(pagedResponse);
 
         mvc.perform(get("/recipe"
@@ -215,4 +388,39 @@ public class RecipeControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].servingsNumber").value(4))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].instructions").exists());
     }
+
+    @Test
+    public void testGetRecipeListWithCursorSuccessfully() throws Exception {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        PaginatedRecipeResponse pagedResponse = new PaginatedRecipeResponse(List.of(recipeDTO), 1, "next");
+        Mockito.when(recipeService.getRecipesAfter(eq("cursor"), eq(1), eq(RecipeUtil.DEFAULT_RECIPE_SORT), any(), any(), any(), any(), any()))
+                .thenReturn(pagedResponse);
+
+        mvc.perform(get("/recipe?size={size}&after={after}", 1, "cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("next"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist());
+        Mockito.verify(recipeService, Mockito.never()).getRecipes(any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void testGetRecipeListWithFacetsSuccessfully() throws Exception {
+        PaginatedRecipeResponse pagedResponse = new PaginatedRecipeResponse(List.of(getDummyRecipeDTO()));
+        pagedResponse.setFacets(RecipeFacets.builder()
+                .recipeTypes(Map.of("Vegetarian", 3L))
+                .servings(Map.of(4, 2L, 2, 1L))
+                .ingredients(List.of(IngredientFacet.builder().ingredientId(1L).ingredientName("Pasta").count(3).build()))
+                .build());
+        Mockito.when(recipeService.getRecipes(any(), any(), any(), any(), any(), any(), any(), eq(true)))
+                .thenReturn(pagedResponse);
+
+        mvc.perform(get("/recipe?facets=true").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.facets.recipeTypes.Vegetarian").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.facets.servings.4").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.facets.ingredients[0].ingredientName").value("Pasta"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.facets.ingredients[0].count").value(3));
+    }
 }
@@ -0,0 +1,53 @@
+package com.recipes.demo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final DataSource primary = Mockito.mock(DataSource.class);
+    private final DataSource replica = Mockito.mock(DataSource.class);
+    private final Connection primaryConnection = Mockito.mock(Connection.class);
+    private final Connection replicaConnection = Mockito.mock(Connection.class);
+    private final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica);
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadWriteRoutingDataSource.unpin();
+    }
+
+    private void stubConnections() throws SQLException {
+        Mockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @Test
+    public void testWritesGoToPrimary() throws SQLException {
+        stubConnections();
+        Assertions.assertSame(dataSource.getConnection(), primaryConnection);
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToReplica() throws SQLException {
+        Mockito.when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertSame(dataSource.getConnection(), replicaConnection);
+    }
+
+    @Test
+    public void testReadsPinnedToPrimaryAfterOwnWrite() throws SQLException {
+        stubConnections();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.pinToPrimary();
+        Assertions.assertSame(dataSource.getConnection(), primaryConnection);
+        Mockito.verify(replica, Mockito.never()).getConnection();
+    }
+}
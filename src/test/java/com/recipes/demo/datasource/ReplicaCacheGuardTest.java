@@ -0,0 +1,48 @@
+package com.recipes.demo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+public class ReplicaCacheGuardTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+    @AfterEach
+    public void tearDown() {
+        ReadWriteRoutingDataSource.unpin();
+    }
+
+    @Test
+    public void testPinnedRequestsBypassTheCaches() {
+        ReplicaCacheGuard guard = new ReplicaCacheGuard(false, Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        ReadWriteRoutingDataSource.pinToPrimary();
+        Assertions.assertFalse(guard.canReadCache());
+        Assertions.assertFalse(guard.canCache(guard.startRead()));
+        ReadWriteRoutingDataSource.unpin();
+        Assertions.assertTrue(guard.canReadCache());
+        Assertions.assertTrue(guard.canCache(guard.startRead()));
+    }
+
+    @Test
+    public void testReplicaReadsWithinWindowAfterWriteAreNotCached() {
+        ReplicaCacheGuard guard = new ReplicaCacheGuard(true, Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        Assertions.assertTrue(guard.canCache(guard.startRead()));
+        guard.recordWrite();
+        Assertions.assertTrue(guard.canReadCache());
+        Assertions.assertFalse(guard.canCache(guard.startRead()));
+        Assertions.assertTrue(guard.canCache(NOW.plusSeconds(5).toEpochMilli()));
+    }
+
+    @Test
+    public void testWritesDoNotDelayCachingWithoutReplica() {
+        ReplicaCacheGuard guard = new ReplicaCacheGuard(false, Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+        guard.recordWrite();
+        Assertions.assertTrue(guard.canCache(guard.startRead()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.recipes.demo.metrics;
+
+import com.recipes.demo.util.SqlStatementAssertions;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SqlStatementScopeTest {
+
+    private final SqlStatementListener listener = new SqlStatementListener();
+
+    private void execute(String sql) {
+        listener.afterQuery(new ExecutionInfo(), List.of(new QueryInfo(sql)));
+    }
+
+    @Test
+    public void testStatementsAreCountedByShape() {
+        try (SqlStatementScope scope = SqlStatementScope.open("GET /recipe/1")) {
+            execute("select * from ingredient where id in (?, ?, ?)");
+            execute("select *\n  from ingredient where id in (?)");
+            execute("select * from recipe where id = 7");
+            Assertions.assertEquals(scope.getStatementCount(), 3);
+            Assertions.assertEquals(scope.getStatementCounts(), Map.of(
+                    "select * from ingredient where id in (?)", 2,
+                    "select * from recipe where id = ?", 1));
+            Assertions.assertEquals(scope.getRepeatedStatements(2).keySet(),
+                    Set.of("select * from ingredient where id in (?)"));
+        }
+        Assertions.assertTrue(SqlStatementScope.current().isEmpty());
+    }
+
+    @Test
+    public void testPropagatedTaskRecordsIntoSubmitterScope() throws InterruptedException {
+        try (SqlStatementScope scope = SqlStatementScope.open("PUT /recipe/1")) {
+            Thread worker = new Thread(SqlStatementScope.propagate(() -> execute("select * from ingredient where id in (?)")));
+            worker.start();
+            worker.join();
+            Assertions.assertEquals(scope.getStatementCounts(), Map.of("select * from ingredient where id in (?)", 1));
+        }
+    }
+
+    @Test
+    public void testNestedScopesRecordIntoParent() {
+        try (SqlStatementScope request = SqlStatementScope.open("GET /recipe")) {
+            try (SqlStatementScope serviceCall = SqlStatementScope.open("getRecipes")) {
+                execute("select 1");
+                Assertions.assertEquals(serviceCall.getStatementCount(), 1);
+            }
+            execute("select 1");
+            Assertions.assertEquals(request.getStatementCount(), 2);
+            Assertions.assertSame(SqlStatementScope.current().orElseThrow(), request);
+        }
+    }
+
+    @Test
+    public void testAssertMaxStatements() throws Throwable {
+        Assertions.assertEquals(SqlStatementAssertions.assertMaxStatements(2, () -> {
+            execute("select 1");
+            return "ok";
+        }), "ok");
+        Assertions.assertThrows(AssertionFailedError.class, () -> SqlStatementAssertions.assertMaxStatements(1, () -> {
+            execute("select 1");
+            execute("select 2");
+            return null;
+        }));
+    }
+
+    @Test
+    public void testAssertNoRepeatedStatementsDetectsNPlusOne() {
+        Assertions.assertThrows(AssertionFailedError.class, () -> SqlStatementAssertions.assertNoRepeatedStatements(3, () -> {
+            for (long recipeId = 1; recipeId <= 3; recipeId++) {
+                execute("select * from ingredient_recipe where recipe_id = " + recipeId);
+            }
+            return null;
+        }));
+    }
+
+    @Test
+    public void testBudgetCheck() {
+        SqlStatementBudget budget = new SqlStatementBudget(2, 3);
+        try (SqlStatementScope scope = SqlStatementScope.open("POST /recipe")) {
+            execute("insert into ingredient_recipe values (?, ?)");
+            execute("insert into ingredient_recipe values (?, ?)");
+            Assertions.assertTrue(budget.check(scope));
+            execute("insert into ingredient_recipe values (?, ?)");
+            Assertions.assertFalse(budget.check(scope));
+        }
+    }
+}
@@ -1,34 +1,68 @@
 package com.recipes.demo.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.recipes.demo.cache.RecipeCache;
+import com.recipes.demo.cache.RecipeIngredientIndex;
+import com.recipes.demo.cache.RecipeSearchCache;
+import com.recipes.demo.cache.ReferenceDataCache;
+import com.recipes.demo.datasource.ReplicaCacheGuard;
 import com.recipes.demo.exception.*;
+import com.recipes.demo.model.BatchRecipeResponse;
+import com.recipes.demo.model.BatchRecipeResult;
+import com.recipes.demo.model.BulkRecipeResponse;
+import com.recipes.demo.model.BulkRecipeResult;
+import com.recipes.demo.model.CountMode;
 import com.recipes.demo.model.IngredientRecipeDTO;
 import com.recipes.demo.model.PaginatedRecipeResponse;
 import com.recipes.demo.model.RecipeDTO;
+import com.recipes.demo.model.RecipeFacets;
+import com.recipes.demo.model.RecipePatchDTO;
+import com.recipes.demo.model.RecipeType;
 import com.recipes.demo.repository.IngredientRecipeRepository;
 import com.recipes.demo.repository.IngredientRepository;
+import com.recipes.demo.repository.IngredientTypeRepository;
 import com.recipes.demo.repository.MeasurementUnitRepository;
+import com.recipes.demo.repository.RecipeJdbcRepository;
 import com.recipes.demo.repository.RecipeRepository;
+import com.recipes.demo.repository.entity.Ingredient;
+import com.recipes.demo.repository.entity.IngredientRecipe;
 import com.recipes.demo.repository.entity.Recipe;
 import com.recipes.demo.service.impl.RecipeService;
+import com.recipes.demo.util.RecipeUtil;
+import com.recipes.demo.util.SqlStatementAssertions;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static com.recipes.demo.util.TestUtil.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,34 +76,58 @@ public class RecipeServiceTest {
     private IngredientRepository ingredientRepository;
     @Mock
     private MeasurementUnitRepository measurementUnitRepository;
-    @InjectMocks
+    @Mock
+    private IngredientTypeRepository ingredientTypeRepository;
+    @Mock
+    private RecipeJdbcRepository recipeJdbcRepository;
+    private ReferenceDataCache referenceDataCache;
+    private RecipeCache recipeCache;
+    private RecipeSearchCache recipeSearchCache;
+    private RecipeIngredientIndex recipeIngredientIndex;
     private RecipeService recipeService;
 
+    @BeforeEach
+    public void setUp() {
+        this.referenceDataCache = new ReferenceDataCache(ingredientRepository, measurementUnitRepository,
+                ingredientTypeRepository, recipeJdbcRepository, 1000);
+        this.recipeCache = new RecipeCache(1000, Duration.ofMinutes(10));
+        this.recipeSearchCache = new RecipeSearchCache(1000, Duration.ofMinutes(1));
+        this.recipeIngredientIndex = new RecipeIngredientIndex(recipeJdbcRepository);
+        this.recipeService = new RecipeService(recipeRepository, ingredientRecipeRepository, referenceDataCache, recipeCache,
+                recipeSearchCache, recipeJdbcRepository, recipeIngredientIndex, 10000,
+                new ReplicaCacheGuard(false, Duration.ofSeconds(5), Clock.systemUTC()));
+    }
+
     @Test
     public void testSaveARecipeSuccessfully() throws JsonProcessingException, RecipeException {
         RecipeDTO recipeDTO = getDummyRecipeDTO();
         Mockito.when(recipeRepository.save(any())).thenReturn(getDummyRecipeEntity());
-        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
-        Mockito.when(measurementUnitRepository.findByIdIn(any())).thenReturn(getDummyMeasumentUnitList());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
         RecipeDTO savedRecipe = this.recipeService.saveRecipe(recipeDTO);
         Assertions.assertEquals(savedRecipe.getId(), 1L);
         Assertions.assertEquals(savedRecipe.getName(), recipeDTO.getName());
         Assertions.assertNotNull(savedRecipe.getCreationDate());
         Assertions.assertEquals(savedRecipe.getIngredients().size(), recipeDTO.getIngredients().size());
         Mockito.verify(recipeRepository).save(any());
-        Mockito.verify(ingredientRecipeRepository).deleteByRecipeId(anyLong());
-        Mockito.verify(ingredientRecipeRepository).saveAll(any());
+        Mockito.verify(ingredientRecipeRepository, Mockito.never()).deleteByRecipeId(anyLong());
+        Mockito.verify(recipeJdbcRepository).insertIngredientRecipes(Mockito.argThat(ingredients -> ingredients.size() == 3));
+        Mockito.verify(recipeRepository).flush();
+        Mockito.verify(recipeJdbcRepository).refreshRecipeSearch(List.of(1L));
     }
 
     @Test
     public void testSaveARecipeThrowInvalidIngredientException() throws JsonProcessingException {
         IngredientRecipeDTO ingredientRecipeDTO = IngredientRecipeDTO.builder()
                 .ingredientId(100L)
+                .measurementUnitId(1L)
+                .quantity(1)
                 .build();
 
         RecipeDTO recipeDTO = getDummyRecipeDTO();
         recipeDTO.getIngredients().add(ingredientRecipeDTO);
-        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
         Assertions.assertThrows(IngredientNotFoundException.class, () -> this.recipeService.saveRecipe(recipeDTO));
     }
 
@@ -78,11 +136,13 @@ public class RecipeServiceTest {
         IngredientRecipeDTO ingredientRecipeDTO = IngredientRecipeDTO.builder()
                 .ingredientId(1L)
                 .measurementUnitId(30L)
+                .quantity(1)
                 .build();
 
         RecipeDTO recipeDTO = getDummyRecipeDTO();
         recipeDTO.getIngredients().add(ingredientRecipeDTO);
-        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
         Assertions.assertThrows(MeasurementUnitNotFoundException.class, () -> this.recipeService.saveRecipe(recipeDTO));
     }
 
@@ -93,6 +153,18 @@ public class RecipeServiceTest {
         Assertions.assertThrows(InvalidInputException.class, () -> this.recipeService.saveRecipe(recipeDTO));
     }
 
+    @Test
+    public void testSaveARecipeWithoutMeasurementUnitThrowInvalidInputException() throws JsonProcessingException {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.getIngredients().get(0).setMeasurementUnitId(null);
+        InvalidInputException exception = Assertions.assertThrows(InvalidInputException.class,
+                () -> this.recipeService.saveRecipe(recipeDTO));
+        Assertions.assertEquals(((ErrorInfo) exception.getAdditionalData()).getAdditionalData().get("message"),
+                RecipeUtil.RECIPE_INGREDIENT_INVALID_INPUT);
+        Mockito.verifyNoInteractions(measurementUnitRepository, recipeJdbcRepository);
+        Mockito.verify(recipeRepository, Mockito.never()).save(any());
+    }
+
     @Test
     public void testSaveARecipeWithoutIngredientsThrowInvalidInputException() throws JsonProcessingException {
         RecipeDTO recipeDTO = getDummyRecipeDTO();
@@ -100,6 +172,94 @@ public class RecipeServiceTest {
         Assertions.assertThrows(InvalidInputException.class, () -> this.recipeService.saveRecipe(recipeDTO));
     }
 
+    @Test
+    public void testImportRecipesReportsResultPerRecipe() throws JsonProcessingException, RecipeException {
+        RecipeDTO validRecipe = getDummyRecipeDTO();
+        RecipeDTO duplicatedRecipe = getDummyRecipeDTO();
+        RecipeDTO unknownIngredientRecipe = getDummyRecipeDTO();
+        unknownIngredientRecipe.setName("Pizza");
+        unknownIngredientRecipe.getIngredients().get(0).setIngredientId(100L);
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
+        Mockito.doAnswer(invocation -> {
+            List<Recipe> recipes = invocation.getArgument(0);
+            recipes.forEach(recipe -> recipe.setId(10L));
+            return null;
+        }).when(recipeJdbcRepository).insertRecipes(any());
+
+        BulkRecipeResponse response = this.recipeService.importRecipes(List.of(validRecipe, duplicatedRecipe, unknownIngredientRecipe));
+        Assertions.assertEquals(response.getCreated(), 1);
+        Assertions.assertEquals(response.getFailed(), 2);
+        Assertions.assertEquals(response.getResults().get(0).getStatus(), BulkRecipeResult.Status.CREATED);
+        Assertions.assertEquals(response.getResults().get(0).getId(), 10L);
+        Assertions.assertEquals(response.getResults().get(1).getStatus(), BulkRecipeResult.Status.FAILED);
+        Assertions.assertEquals(response.getResults().get(1).getError().getCode(), ErrorCode.RECIPE_BAD_REQUEST.getCode());
+        Assertions.assertEquals(response.getResults().get(2).getError().getCode(), ErrorCode.INGREDIENT_NOT_FOUND_CODE.getCode());
+        Mockito.verify(recipeJdbcRepository, times(1)).findReferenceData(any(), any());
+        Mockito.verify(recipeJdbcRepository, times(1)).insertRecipes(any());
+        Mockito.verify(recipeJdbcRepository, times(1)).insertIngredientRecipes(any());
+        Mockito.verify(recipeJdbcRepository, times(1)).refreshRecipeSearch(List.of(10L));
+        Mockito.verify(recipeRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    public void testImportRecipesValidatesColumnLimitsAndAccentInsensitiveNames() throws JsonProcessingException, RecipeException {
+        RecipeDTO longNameRecipe = getDummyRecipeDTO();
+        longNameRecipe.setName("N".repeat(RecipeUtil.MAXIMUM_RECIPE_NAME_LENGTH + 1));
+        RecipeDTO longInstructionsRecipe = getDummyRecipeDTO();
+        longInstructionsRecipe.setName("Soup");
+        longInstructionsRecipe.setInstructions("I".repeat(RecipeUtil.MAXIMUM_RECIPE_INSTRUCTIONS_LENGTH + 1));
+        RecipeDTO missingInstructionsRecipe = getDummyRecipeDTO();
+        missingInstructionsRecipe.setName("Salad");
+        missingInstructionsRecipe.setInstructions(null);
+        RecipeDTO accentedRecipe = getDummyRecipeDTO();
+        accentedRecipe.setName("Crème brûlée ");
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
+        Mockito.when(recipeJdbcRepository.findIdsByName(any())).thenReturn(Map.of("creme brulee", 5L));
+
+        BulkRecipeResponse response = this.recipeService.importRecipes(List.of(longNameRecipe, longInstructionsRecipe,
+                missingInstructionsRecipe, accentedRecipe));
+        Assertions.assertEquals(response.getCreated(), 0);
+        Assertions.assertEquals(response.getFailed(), 4);
+        Assertions.assertEquals(response.getResults().get(0).getError().getAdditionalData().get("message"),
+                String.format(RecipeUtil.RECIPE_NAME_TOO_LONG, RecipeUtil.MAXIMUM_RECIPE_NAME_LENGTH));
+        Assertions.assertEquals(response.getResults().get(1).getError().getAdditionalData().get("message"),
+                String.format(RecipeUtil.RECIPE_INSTRUCTIONS_TOO_LONG, RecipeUtil.MAXIMUM_RECIPE_INSTRUCTIONS_LENGTH));
+        Assertions.assertEquals(response.getResults().get(2).getError().getAdditionalData().get("message"),
+                RecipeUtil.RECIPE_INVALID_INPUT);
+        Assertions.assertEquals(response.getResults().get(3).getError().getAdditionalData().get("message"),
+                String.format(RecipeUtil.RECIPE_NAME_ALREADY_EXISTS, "Crème brûlée "));
+        Mockito.verify(recipeJdbcRepository, Mockito.never()).insertRecipes(any());
+    }
+
+    @Test
+    public void testImportRecipesMarksRecipesOfRolledBackBatchFailed() throws JsonProcessingException, RecipeException {
+        RecipeDTO storedRecipe = getDummyRecipeDTO();
+        RecipeDTO rejectedRecipe = getDummyRecipeDTO();
+        rejectedRecipe.setName("Pizza");
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
+        Mockito.doAnswer(invocation -> {
+            List<Recipe> recipes = invocation.getArgument(0);
+            recipes.get(0).setId(10L);
+            return null;
+        }).when(recipeJdbcRepository).insertRecipes(any());
+
+        BulkRecipeResponse response = this.recipeService.importRecipes(List.of(storedRecipe, rejectedRecipe));
+        Assertions.assertEquals(response.getCreated(), 1);
+        Assertions.assertEquals(response.getResults().get(1).getStatus(), BulkRecipeResult.Status.FAILED);
+        Assertions.assertEquals(response.getResults().get(1).getError().getCode(), ErrorCode.RECIPE_NOT_STORED_CODE.getCode());
+        Mockito.verify(recipeJdbcRepository).refreshRecipeSearch(List.of(10L));
+    }
+
+    @Test
+    public void testImportRecipesThrowInvalidInputExceptionWhenTooManyRecipes() throws JsonProcessingException {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        List<RecipeDTO> recipes = Collections.nCopies(RecipeUtil.MAXIMUM_BULK_RECIPES + 1, recipeDTO);
+        Assertions.assertThrows(InvalidInputException.class, () -> this.recipeService.importRecipes(recipes));
+    }
+
     @Test
     public void testUpdateRecipeSuccessfully() throws JsonProcessingException, RecipeException {
         Long recipeId = 1L;
@@ -108,14 +268,91 @@ public class RecipeServiceTest {
         recipeDTO.setId(null);
         Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
         Mockito.when(recipeRepository.save(any())).thenReturn(getDummyRecipeEntity());
-        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
-        Mockito.when(measurementUnitRepository.findByIdIn(any())).thenReturn(getDummyMeasumentUnitList());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
         RecipeDTO updatedRecipe = this.recipeService.updateRecipe(recipeId, recipeDTO);
         Assertions.assertEquals(updatedRecipe.getId(), recipeId);
         Assertions.assertEquals(updatedRecipe.getName(), recipeDTO.getName());
-        Mockito.verify(recipeRepository).save(any());
-        Mockito.verify(ingredientRecipeRepository).deleteByRecipeId(recipeId);
-        Mockito.verify(ingredientRecipeRepository).saveAll(any());
+        Mockito.verify(recipeRepository).save(Mockito.argThat(recipe -> recipe.getCreationDate() != null
+                && recipe.getName().equals("Updated name")));
+        Mockito.verify(ingredientRecipeRepository, Mockito.never()).deleteByRecipeId(anyLong());
+        Mockito.verify(ingredientRecipeRepository, Mockito.never()).saveAll(any());
+        Mockito.verify(recipeJdbcRepository).refreshRecipeSearch(List.of(recipeId));
+    }
+
+    @Test
+    public void testUpdateRecipeWritesOnlyChangedIngredients() throws JsonProcessingException, RecipeException {
+        Long recipeId = 1L;
+        List<IngredientRecipe> existingIngredients = getDummyRecipeIngredientRecipeList();
+        existingIngredients.forEach(ingredient -> ingredient.setQuantity(1));
+        RecipeDTO recipeDTO = getDummyUpdatedRecipeDTO();
+        recipeDTO.getIngredients().get(1).setQuantity(1);
+        recipeDTO.getIngredients().add(IngredientRecipeDTO.builder().ingredientId(4L).measurementUnitId(2L).quantity(3).build());
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(recipeId)).thenReturn(existingIngredients);
+        List<Ingredient> ingredients = new ArrayList<>(getDummyIngredientList());
+        ingredients.add(Ingredient.builder().id(4L).name("Oil").ingredientTypeId(RecipeUtil.VEGETARIAN_DEFAULT_ID).build());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(ingredients, getDummyMeasumentUnitList()));
+
+        this.recipeService.updateRecipe(recipeId, recipeDTO);
+        Mockito.verify(recipeJdbcRepository).deleteIngredientRecipes(List.of(2L));
+        Mockito.verify(recipeJdbcRepository).updateIngredientRecipes(Mockito.argThat(updated -> updated.size() == 1
+                && updated.get(0).getId() == 1L && updated.get(0).getQuantity() == 250));
+        Mockito.verify(recipeJdbcRepository).insertIngredientRecipes(Mockito.argThat(inserted -> inserted.size() == 1
+                && inserted.get(0).getIngredientId() == 4L && inserted.get(0).getId() == null));
+        Mockito.verify(recipeJdbcRepository).refreshRecipeSearch(List.of(recipeId));
+    }
+
+    @Test
+    public void testPatchRecipeServingsSkipsIngredientLookups() throws RecipeException {
+        Long recipeId = 1L;
+        Recipe recipe = getDummyRecipeEntity();
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(Set.of(recipeId))).thenReturn(getDummyRecipeIngredientRecipeList());
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+
+        RecipeDTO patchedRecipe = this.recipeService.patchRecipe(recipeId, RecipePatchDTO.builder().servingsNumber(6).build());
+        Assertions.assertEquals(patchedRecipe.getServingsNumber(), 6);
+        Assertions.assertEquals(patchedRecipe.getName(), "Spaghetti");
+        Assertions.assertEquals(patchedRecipe.getIngredients().size(), 3);
+        Assertions.assertNotNull(recipe.getUpdatedDate());
+        Mockito.verify(recipeRepository).save(recipe);
+        Mockito.verify(ingredientRecipeRepository, Mockito.never()).findByRecipeId(any());
+        Mockito.verifyNoInteractions(measurementUnitRepository);
+        Mockito.verify(recipeJdbcRepository, Mockito.never()).insertIngredientRecipes(any());
+        Mockito.verify(recipeJdbcRepository).refreshRecipeSearch(List.of(recipeId));
+    }
+
+    @Test
+    public void testPatchRecipeIngredientsRederivesRecipeType() throws RecipeException {
+        Long recipeId = 1L;
+        Recipe recipe = getDummyRecipeEntity();
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        List<IngredientRecipe> existingIngredients = getDummyRecipeIngredientRecipeList();
+        existingIngredients.get(0).setQuantity(250);
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(recipeId)).thenReturn(existingIngredients);
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any())).thenReturn(new RecipeJdbcRepository.ReferenceDataRows(
+                List.of(Ingredient.builder().id(1L).name("Pasta").ingredientTypeId(RecipeUtil.VEGETARIAN_DEFAULT_ID).build(),
+                        Ingredient.builder().id(5L).name("Beef").ingredientTypeId(2L).build()),
+                getDummyMeasumentUnitList()));
+        List<IngredientRecipeDTO> ingredients = List.of(
+                IngredientRecipeDTO.builder().ingredientId(1L).measurementUnitId(1L).quantity(250).build(),
+                IngredientRecipeDTO.builder().ingredientId(5L).measurementUnitId(2L).quantity(200).build());
+
+        this.recipeService.patchRecipe(recipeId, RecipePatchDTO.builder().ingredients(ingredients).build());
+        Assertions.assertEquals(recipe.getRecipeType(), RecipeType.NON_VEGETARIAN.getLabel());
+        Mockito.verify(recipeJdbcRepository).deleteIngredientRecipes(List.of(2L, 3L));
+        Mockito.verify(recipeJdbcRepository, Mockito.never()).updateIngredientRecipes(any());
+        Mockito.verify(recipeJdbcRepository).insertIngredientRecipes(Mockito.argThat(inserted -> inserted.size() == 1
+                && inserted.get(0).getIngredientId() == 5L));
+    }
+
+    @Test
+    public void testPatchRecipeWithBlankNameThrowInvalidInputException() {
+        Mockito.when(recipeRepository.findById(1L)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Assertions.assertThrows(InvalidInputException.class,
+                () -> this.recipeService.patchRecipe(1L, RecipePatchDTO.builder().name(" ").build()));
     }
 
     @Test
@@ -156,6 +393,216 @@ public class RecipeServiceTest {
         Assertions.assertEquals(recipeDTO.getIngredients().get(2).getIngredientId(), 3L);
     }
 
+    @Test
+    public void testGetRecipeServesIngredientNamesFromReferenceCache() throws RecipeException {
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.getRecipeById(recipeId);
+        RecipeDTO recipeDTO = this.recipeService.getRecipeById(recipeId);
+        Assertions.assertEquals(recipeDTO.getIngredients().get(2).getIngredientName(), "Salt");
+        Mockito.verify(ingredientRepository, times(1)).findByIdIn(any());
+    }
+
+    @Test
+    public void testGetRecipeServedFromRecipeCache() throws RecipeException {
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        RecipeDTO firstRead = this.recipeService.getRecipeById(recipeId);
+        RecipeDTO secondRead = this.recipeService.getRecipeById(recipeId);
+        Assertions.assertEquals(firstRead, secondRead);
+        Assertions.assertNotSame(firstRead, secondRead);
+        Assertions.assertEquals(recipeCache.getStats().hitCount(), 1);
+        Mockito.verify(recipeRepository, times(1)).findById(recipeId);
+        Mockito.verify(ingredientRecipeRepository, times(1)).findByRecipeId(recipeId);
+    }
+
+    @Test
+    public void testGetRecipeNotCachedFromReplicaWithinWindowAfterWrite() throws RecipeException {
+        ReplicaCacheGuard replicaCacheGuard = new ReplicaCacheGuard(true, Duration.ofSeconds(5), Clock.systemUTC());
+        this.recipeService = new RecipeService(recipeRepository, ingredientRecipeRepository, referenceDataCache, recipeCache,
+                recipeSearchCache, recipeJdbcRepository, recipeIngredientIndex, 10000, replicaCacheGuard);
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        replicaCacheGuard.recordWrite();
+        this.recipeService.getRecipeById(recipeId);
+        this.recipeService.getRecipeById(recipeId);
+        Assertions.assertEquals(recipeCache.getStats().hitCount(), 0);
+        Mockito.verify(recipeRepository, times(2)).findById(recipeId);
+    }
+
+    @Test
+    public void testGetRecipeRunsAtMostThreeRepositoryCalls() throws RecipeException {
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.getRecipeById(recipeId);
+        this.recipeService.getRecipeById(recipeId);
+        SqlStatementAssertions.assertMaxRepositoryCalls(3, recipeRepository, ingredientRecipeRepository,
+                ingredientRepository, measurementUnitRepository);
+    }
+
+    @Test
+    public void testSaveRecipeRunsAtMostFourRepositoryCalls() throws JsonProcessingException, RecipeException {
+        Mockito.when(recipeRepository.save(any())).thenReturn(getDummyRecipeEntity());
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
+        this.recipeService.saveRecipe(getDummyRecipeDTO());
+        SqlStatementAssertions.assertMaxRepositoryCalls(4, recipeRepository, ingredientRecipeRepository,
+                ingredientRepository, measurementUnitRepository);
+    }
+
+    @Test
+    public void testGetRecipeUpdatedDateServedFromRecipeCache() throws RecipeException {
+        Long recipeId = 1L;
+        Recipe recipe = getDummyRecipeEntity();
+        recipe.setUpdatedDate(LocalDateTime.parse("2023-07-03T20:49:04.61"));
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.getRecipeById(recipeId);
+        Assertions.assertEquals(this.recipeService.getRecipeUpdatedDate(recipeId), Optional.of(recipe.getUpdatedDate()));
+        Mockito.verify(recipeRepository, Mockito.never()).findUpdatedDateById(any());
+    }
+
+    @Test
+    public void testUpdateRecipeLoadsReferenceDataInOneStatementOnCallerThread() throws JsonProcessingException, RecipeException {
+        Thread caller = Thread.currentThread();
+        Mockito.when(recipeRepository.findById(1L)).thenReturn(Optional.of(getDummyRecipeEntity()));
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any())).thenAnswer(invocation -> {
+            Assertions.assertSame(Thread.currentThread(), caller);
+            return new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList());
+        });
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.updateRecipe(1L, getDummyRecipeDTO());
+        RecipeDTO updatedRecipe = this.recipeService.updateRecipe(1L, getDummyRecipeDTO());
+        Assertions.assertEquals(updatedRecipe.getId(), 1L);
+        Mockito.verify(recipeJdbcRepository, times(1)).findReferenceData(any(), any());
+        Mockito.verifyNoInteractions(ingredientRepository, measurementUnitRepository);
+    }
+
+    @Test
+    public void testUpdateRecipeMovesUpdatedDateForward() throws JsonProcessingException, RecipeException {
+        Long recipeId = 1L;
+        Recipe recipe = getDummyRecipeEntity();
+        LocalDateTime previousUpdatedDate = LocalDateTime.now().plusDays(1);
+        recipe.setUpdatedDate(previousUpdatedDate);
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.of(recipe));
+        Mockito.when(recipeJdbcRepository.findReferenceData(any(), any()))
+                .thenReturn(new RecipeJdbcRepository.ReferenceDataRows(getDummyIngredientList(), getDummyMeasumentUnitList()));
+        RecipeDTO recipeDTO = this.recipeService.updateRecipe(recipeId, getDummyUpdatedRecipeDTO());
+        Assertions.assertTrue(recipeDTO.getUpdatedDate().isAfter(previousUpdatedDate));
+        Assertions.assertEquals(recipeDTO.getUpdatedDate().getNano() % 1000, 0);
+    }
+
+    @Test
+    public void testGetRecipesByIdsKeepsInputOrderAndReportsMissingIds() throws RecipeException {
+        Mockito.when(recipeRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        BatchRecipeResponse response = this.recipeService.getRecipesByIds(List.of(2L, 1L));
+        Assertions.assertEquals(response.getFound(), 1);
+        Assertions.assertEquals(response.getNotFound(), 1);
+        Assertions.assertEquals(response.getResults().get(0).getId(), 2L);
+        Assertions.assertEquals(response.getResults().get(0).getStatus(), BatchRecipeResult.Status.NOT_FOUND);
+        Assertions.assertEquals(response.getResults().get(0).getError().getCode(), ErrorCode.RECIPE_NOT_FOUND_CODE.getCode());
+        Assertions.assertEquals(response.getResults().get(1).getStatus(), BatchRecipeResult.Status.FOUND);
+        Assertions.assertEquals(response.getResults().get(1).getRecipe().getIngredients().get(0).getIngredientName(), "Pasta");
+    }
+
+    @Test
+    public void testGetRecipesByIdsLoadsOnlyUncachedRecipes() throws RecipeException {
+        Mockito.when(recipeRepository.findById(1L)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        RecipeDTO cachedRecipe = this.recipeService.getRecipeById(1L);
+        BatchRecipeResponse response = this.recipeService.getRecipesByIds(List.of(1L, 3L, 1L));
+        Assertions.assertEquals(response.getResults().get(0).getRecipe(), cachedRecipe);
+        Assertions.assertEquals(response.getResults().get(2).getRecipe(), cachedRecipe);
+        Mockito.verify(recipeRepository, times(1)).findAllById(Set.of(3L));
+    }
+
+    @Test
+    public void testGetRecipesByIdsRunsAtMostThreeRepositoryCalls() throws RecipeException {
+        Mockito.when(recipeRepository.findAllById(any())).thenReturn(List.of(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.getRecipesByIds(List.of(1L, 2L, 3L, 4L, 5L));
+        SqlStatementAssertions.assertMaxRepositoryCalls(3, recipeRepository, ingredientRecipeRepository,
+                ingredientRepository, measurementUnitRepository);
+    }
+
+    @Test
+    public void testGetRecipesByIdsThrowInvalidInputExceptionWhenTooManyIds() {
+        List<Long> recipeIds = new ArrayList<>();
+        for (long id = 1; id <= RecipeUtil.MAXIMUM_BATCH_RECIPES + 1; id++) {
+            recipeIds.add(id);
+        }
+        Assertions.assertThrows(InvalidInputException.class, () -> this.recipeService.getRecipesByIds(recipeIds));
+    }
+
+    @Test
+    public void testDeleteRecipeEvictsRecipeCache() throws RecipeException {
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        this.recipeService.getRecipeById(recipeId);
+        this.recipeService.deleteRecipe(recipeId);
+        Assertions.assertTrue(recipeCache.get(recipeId).isEmpty());
+    }
+
+    @Test
+    public void testRecipeCacheKeepsItsCopyWhenServedRecipeIsModified() throws RecipeException {
+        Long recipeId = 1L;
+        Mockito.when(recipeRepository.findById(recipeId)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.when(ingredientRecipeRepository.findByRecipeId(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        RecipeDTO loadedRecipe = this.recipeService.getRecipeById(recipeId);
+        loadedRecipe.setName("Modified by the caller");
+        RecipeDTO cachedRecipe = this.recipeService.getRecipeById(recipeId);
+        cachedRecipe.getIngredients().get(0).setQuantity(999);
+        RecipeDTO secondCachedRecipe = this.recipeService.getRecipeById(recipeId);
+        Assertions.assertNotEquals(secondCachedRecipe.getName(), "Modified by the caller");
+        Assertions.assertNotEquals(secondCachedRecipe.getIngredients().get(0).getQuantity(), 999);
+        Mockito.verify(recipeRepository, times(1)).findById(recipeId);
+    }
+
+    @Test
+    public void testRecipeCacheSkipsReadLoadedBeforeAWrite() throws JsonProcessingException {
+        RecipeDTO recipeDTO = getDummyRecipeDTO();
+        recipeDTO.setId(1L);
+        long readGeneration = recipeCache.generation();
+        recipeCache.evict(1L);
+        recipeCache.put(recipeDTO, readGeneration);
+        Assertions.assertTrue(recipeCache.get(1L).isEmpty());
+        recipeCache.put(recipeDTO, recipeCache.generation());
+        Assertions.assertTrue(recipeCache.get(1L).isPresent());
+    }
+
+    @Test
+    public void testExportRecipesStreamsRecipesWithIngredients() {
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<Recipe, List<IngredientRecipe>> consumer = invocation.getArgument(0);
+            consumer.accept(getDummyRecipeEntity(), getDummyRecipeIngredientRecipeList());
+            return null;
+        }).when(recipeJdbcRepository).streamRecipesWithIngredients(any());
+
+        List<RecipeDTO> exported = new ArrayList<>();
+        this.recipeService.exportRecipes(exported::add);
+        Assertions.assertEquals(exported.size(), 1);
+        Assertions.assertEquals(exported.get(0).getIngredients().size(), 3);
+        Assertions.assertEquals(exported.get(0).getIngredients().get(1).getIngredientName(), "Water");
+        Mockito.verify(recipeRepository, Mockito.never()).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void testGetRecipeListSuccessfully() throws RecipeException {
         Pageable pageable = Pageable.ofSize(10);
@@ -167,7 +614,353 @@ public class RecipeServiceTest {
         Page<Recipe> pagedResponse = new PageImpl<>(List.of(getDummyRecipeEntity()),pageable,1);
         Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
                 .thenReturn(pagedResponse);
-        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients, instructionKeyword, servings);
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, isVegetarian, includedIngredients, excludedIngredients, instructionKeyword, servings, CountMode.EXACT, false);
+        Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Assertions.assertEquals(responsePage.getContent().get(0).getIngredients().size(), 3);
+        Assertions.assertEquals(responsePage.getContent().get(0).getIngredients().get(0).getIngredientName(), "Pasta");
+        Mockito.verify(ingredientRecipeRepository, times(1)).findByRecipeIdIn(any());
+        Mockito.verify(ingredientRepository, times(1)).findByIdIn(any());
+        Mockito.verify(ingredientRecipeRepository, Mockito.never()).findByRecipeId(any());
+    }
+
+    @Test
+    public void testGetRecipeListMatchesEveryKeywordWordAsPrefix() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        recipeService.getRecipes(pageable, null, null, null, "Boil it in water!", null, CountMode.NONE, false);
+        Mockito.verify(recipeRepository).findAll(any(), isNull(), eq(false), eq(false), any(), any(),
+                eq("+Boil* +water*"), isNull());
+    }
+
+    @Test
+    public void testGetRecipeListRejectsKeywordWithoutIndexableWord() {
+        Pageable pageable = Pageable.ofSize(10);
+        InvalidInputException exception = Assertions.assertThrows(InvalidInputException.class,
+                () -> recipeService.getRecipes(pageable, null, null, null, "a to", null, CountMode.EXACT, false));
+        Assertions.assertEquals(((ErrorInfo) exception.getAdditionalData()).getAdditionalData().get("message"),
+                String.format(RecipeUtil.INVALID_INSTRUCTION_KEYWORD, RecipeUtil.FULL_TEXT_MINIMUM_TERM_LENGTH));
+        Mockito.verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    public void testGetRecipeListWithBlankKeywordDoesNotFilter() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+        recipeService.getRecipes(pageable, null, null, null, " ", null, CountMode.NONE, false);
+        Mockito.verify(recipeRepository).findAll(any(), isNull(), eq(false), eq(false), any(), any(), eq(""), isNull());
+    }
+
+    @Test
+    public void testGetRecipeListServedFromSearchCacheForEquivalentFilters() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        Page<Recipe> pagedResponse = new PageImpl<>(List.of(getDummyRecipeEntity()), pageable, 1);
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(pagedResponse);
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        PaginatedRecipeResponse firstSearch = recipeService.getRecipes(pageable, true, List.of("pasta", "water"),
+                null, null, 4, CountMode.EXACT, false);
+        PaginatedRecipeResponse secondSearch = recipeService.getRecipes(pageable, true, List.of("WATER", "Pasta"),
+                null, null, 4, CountMode.EXACT, false);
+        Assertions.assertSame(firstSearch, secondSearch);
+        Assertions.assertEquals(recipeSearchCache.getStats().hitCount(), 1);
+        Mockito.verify(recipeRepository, times(1)).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListSearchCacheInvalidatedByWrite() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        Page<Recipe> pagedResponse = new PageImpl<>(List.of(getDummyRecipeEntity()), pageable, 1);
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(pagedResponse);
+        Mockito.when(recipeRepository.findById(1L)).thenReturn(Optional.ofNullable(getDummyRecipeEntity()));
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        recipeService.getRecipes(pageable, null, null, null, null, null, CountMode.EXACT, false);
+        recipeService.deleteRecipe(1L);
+        recipeService.getRecipes(pageable, null, null, null, null, null, CountMode.EXACT, false);
+        Assertions.assertEquals(recipeSearchCache.getStats().hitCount(), 0);
+        Mockito.verify(recipeRepository, times(2)).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListAfterCursorSuccessfully() throws RecipeException {
+        Recipe lastRecipe = getDummyRecipeEntity();
+        Recipe nextRecipe = getDummyRecipeEntity();
+        nextRecipe.setId(2L);
+        nextRecipe.setName("Pizza");
+        String after = RecipeUtil.encodeRecipeCursor(lastRecipe);
+        Mockito.when(recipeRepository.findAllAfter(eq("Spaghetti"), eq(1L), eq(2), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(nextRecipe, getDummyRecipeEntity()));
+        PaginatedRecipeResponse responsePage = recipeService.getRecipesAfter(after, 1, RecipeUtil.DEFAULT_RECIPE_SORT, null, null, null, null, null);
         Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Assertions.assertEquals(responsePage.getContent().get(0).getName(), "Pizza");
+        Assertions.assertFalse(responsePage.isLast());
+        Assertions.assertNull(responsePage.getTotalElements());
+        Assertions.assertEquals(RecipeUtil.decodeRecipeCursor(responsePage.getNextCursor()).getId(), 2L);
+        Mockito.verify(recipeRepository, Mockito.never()).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListFirstCursorPageIsLast() throws RecipeException {
+        Mockito.when(recipeRepository.findAllAfter(isNull(), isNull(), eq(11), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(getDummyRecipeEntity()));
+        PaginatedRecipeResponse responsePage = recipeService.getRecipesAfter("", 10, Sort.unsorted(), true, null, null, null, null);
+        Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Assertions.assertTrue(responsePage.isLast());
+        Assertions.assertNull(responsePage.getNextCursor());
+    }
+
+    @Test
+    public void testGetRecipeListWithInvalidCursorThrowInvalidInputException() {
+        Assertions.assertThrows(InvalidInputException.class,
+                () -> recipeService.getRecipesAfter("not-a-cursor", 10, RecipeUtil.DEFAULT_RECIPE_SORT, null, null, null, null, null));
+    }
+
+    @Test
+    public void testGetRecipeListAfterCursorWithSortThrowInvalidInputException() {
+        InvalidInputException exception = Assertions.assertThrows(InvalidInputException.class,
+                () -> recipeService.getRecipesAfter("", 10, Sort.by(Sort.Order.asc("servingsNumber")), null, null, null, null, null));
+        Assertions.assertEquals(((ErrorInfo) exception.getAdditionalData()).getAdditionalData().get("message"),
+                RecipeUtil.INVALID_CURSOR_SORT);
+        Mockito.verify(recipeRepository, Mockito.never()).findAllAfter(any(), any(), anyInt(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListResolvesIngredientFiltersWithIndex() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        loadRecipeIngredientIndex();
+        Page<Recipe> pagedResponse = new PageImpl<>(List.of(getDummyRecipeEntity()), pageable, 1);
+        Mockito.when(recipeRepository.findAllByIdIn(any(), eq(List.of(1L)), any(), any(), any())).thenReturn(pagedResponse);
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, null, List.of("pasta", "water"),
+                List.of("salt"), null, null, CountMode.EXACT, false);
+        Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Mockito.verify(recipeRepository, Mockito.never()).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListWithUnknownIncludedIngredientReturnsEmptyPage() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        loadRecipeIngredientIndex();
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, null, List.of("milk"), null, null, null, CountMode.EXACT, false);
+        Assertions.assertTrue(responsePage.getContent().isEmpty());
+        Assertions.assertEquals(responsePage.getTotalElements(), 0L);
+        Mockito.verify(recipeRepository, Mockito.never()).findAllByIdIn(any(), any(), any(), any(), any());
+        Mockito.verify(recipeRepository, Mockito.never()).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListFiltersByIngredientIdsResolvedFromCache() throws RecipeException {
+        Pageable pageable = Pageable.ofSize(10);
+        Mockito.when(ingredientRepository.findAll()).thenReturn(getDummyIngredientList());
+        referenceDataCache.preload();
+        Mockito.when(recipeRepository.findAll(any(), any(), eq(true), eq(true), eq(List.of(1L)), eq(List.of(2L)), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(getDummyRecipeEntity()), pageable, false));
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, null, List.of(" pasta", "PASTA"),
+                List.of("Water "), null, null, CountMode.NONE, false);
+        Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Mockito.verify(ingredientRepository, Mockito.never()).findByNormalizedNameIn(any());
+    }
+
+    private void loadRecipeIngredientIndex() {
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(0);
+            consumer.accept(1L, 1L);
+            consumer.accept(1L, 2L);
+            consumer.accept(2L, 2L);
+            consumer.accept(2L, 3L);
+            return null;
+        }).when(recipeJdbcRepository).streamIngredientRecipeIds(any());
+        Mockito.when(ingredientRepository.findByNormalizedNameIn(any())).thenAnswer(invocation -> {
+            Set<String> names = invocation.getArgument(0);
+            return getDummyIngredientList().stream()
+                    .filter(ingredient -> names.contains(RecipeUtil.normalizeIngredientName(ingredient.getName())))
+                    .toList();
+        });
+        recipeIngredientIndex.rebuild();
+    }
+
+    @Test
+    public void testGetRecipeListSortedByRelevance() throws RecipeException {
+        Pageable pageable = PageRequest.of(1, 10, Sort.by(RecipeUtil.RELEVANCE_SORT));
+        Slice<Recipe> pagedResponse = new SliceImpl<>(List.of(getDummyRecipeEntity()), pageable, false);
+        Mockito.when(recipeRepository.findAllByRelevance(eq(PageRequest.of(1, 10)), any(), any(), any(), any(), any(),
+                        eq("+boil* +water*"), any()))
+                .thenReturn(pagedResponse);
+        Mockito.when(recipeRepository.countAll(any(), any(), any(), any(), any(), eq("+boil* +water*"), any())).thenReturn(11L);
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, null, null, null, "boil, water!", null, CountMode.EXACT, false);
+        Assertions.assertEquals(responsePage.getContent().size(), 1);
+        Assertions.assertEquals(responsePage.getTotalElements(), 11L);
+        Assertions.assertEquals(responsePage.getTotalPages(), 2);
+        Mockito.verify(recipeRepository, Mockito.never()).findAll(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListSortedByRelevanceWithoutKeywordUsesDefaultSort() throws RecipeException {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(RecipeUtil.RELEVANCE_SORT));
+        Mockito.when(recipeRepository.findAll(eq(PageRequest.of(0, 10, RecipeUtil.DEFAULT_RECIPE_SORT)), any(), any(), any(),
+                        any(), any(), eq(""), any()))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10, RecipeUtil.DEFAULT_RECIPE_SORT), 0));
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(pageable, null, null, null, null, null, CountMode.EXACT, false);
+        Assertions.assertTrue(responsePage.getContent().isEmpty());
+    }
+
+    @Test
+    public void testGetRecipeListExactCountReusedAcrossPages() throws RecipeException {
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(getDummyRecipeEntity()), PageRequest.of(0, 1), true));
+        Mockito.when(recipeRepository.countAll(any(), any(), any(), any(), any(), any(), any())).thenReturn(25L);
+        Mockito.when(ingredientRecipeRepository.findByRecipeIdIn(any())).thenReturn(getDummyRecipeIngredientRecipeList());
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+        PaginatedRecipeResponse firstPage = recipeService.getRecipes(PageRequest.of(0, 1), null, null, null, "boil", null,
+                CountMode.EXACT, false);
+        PaginatedRecipeResponse secondPage = recipeService.getRecipes(PageRequest.of(1, 1), null, null, null, "boil", null,
+                CountMode.EXACT, false);
+        Assertions.assertEquals(firstPage.getTotalElements(), 25L);
+        Assertions.assertEquals(secondPage.getTotalElements(), 25L);
+        Mockito.verify(recipeRepository, times(1)).countAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListWithoutCountSkipsCountQuery() throws RecipeException {
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(PageRequest.of(0, 10), null, null, null, "boil", null,
+                CountMode.NONE, false);
+        Assertions.assertNull(responsePage.getTotalElements());
+        Assertions.assertNull(responsePage.getTotalPages());
+        Assertions.assertTrue(responsePage.isLast());
+        Mockito.verify(recipeRepository, Mockito.never()).countAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListCountsFromIndexWithoutKeyword() throws RecipeException {
+        rebuildRecipeIngredientIndex();
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(PageRequest.of(0, 10), true, null, null, null, 4,
+                CountMode.EXACT, false);
+        Assertions.assertEquals(responsePage.getTotalElements(), 1L);
+        Assertions.assertNull(responsePage.getTotalElementsEstimated());
+        Mockito.verify(recipeRepository, Mockito.never()).countAll(any(), any(), any(), any(), any(), any(), any());
+
+        PaginatedRecipeResponse estimatedPage = recipeService.getRecipes(PageRequest.of(0, 10), null, null, null, "boil", 4,
+                CountMode.ESTIMATE, false);
+        Assertions.assertEquals(estimatedPage.getTotalElements(), 2L);
+        Assertions.assertTrue(estimatedPage.getTotalElementsEstimated());
+        Mockito.verify(recipeRepository, Mockito.never()).countAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testRecipeIngredientIndexRebuildPicksUpRecipesWrittenOutsideTheService() throws RecipeException {
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        recipeIngredientIndex.rebuild();
+        Assertions.assertEquals(recipeIngredientIndex.summarize(), new RecipeIngredientIndex.Summary(true, 0, 0));
+
+        rebuildRecipeIngredientIndex();
+        Assertions.assertEquals(recipeIngredientIndex.summarize(), new RecipeIngredientIndex.Summary(true, 3, 2));
+        PaginatedRecipeResponse responsePage = recipeService.getRecipes(PageRequest.of(0, 10), true, null, null, null, null,
+                CountMode.EXACT, false);
+        Assertions.assertEquals(responsePage.getTotalElements(), 2L);
+    }
+
+    @Test
+    public void testGetRecipeListFacetsFromIndexWithoutKeyword() throws RecipeException {
+        rebuildRecipeIngredientIndex();
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+
+        RecipeFacets facets = recipeService.getRecipes(PageRequest.of(0, 10), null, null, null, null, null,
+                CountMode.NONE, true).getFacets();
+        Assertions.assertEquals(facets.getRecipeTypes(),
+                Map.of(RecipeType.VEGETARIAN.getLabel(), 2L, RecipeType.NON_VEGETARIAN.getLabel(), 1L));
+        Assertions.assertEquals(facets.getServings(), Map.of(2, 1L, 4, 2L));
+        Assertions.assertEquals(facets.getIngredients().size(), 2);
+        Assertions.assertEquals(facets.getIngredients().get(0).getIngredientName(), "Pasta");
+        Assertions.assertEquals(facets.getIngredients().get(0).getCount(), 2L);
+
+        RecipeFacets servingsFacets = recipeService.getRecipes(PageRequest.of(0, 10), null, null, null, null, 4,
+                CountMode.NONE, true).getFacets();
+        Assertions.assertEquals(servingsFacets.getServings(), Map.of(4, 2L));
+        Assertions.assertEquals(servingsFacets.getRecipeTypes(),
+                Map.of(RecipeType.VEGETARIAN.getLabel(), 1L, RecipeType.NON_VEGETARIAN.getLabel(), 1L));
+        Mockito.verify(recipeRepository, Mockito.never()).countFacets(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetRecipeListFacetsAggregatedOnceWithKeyword() throws RecipeException {
+        Mockito.when(recipeRepository.findAll(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 1), true));
+        Mockito.when(recipeRepository.countFacets(any(), any(), any(), any(), any(), eq("+boil*"), any()))
+                .thenReturn(List.of(facetCount(RecipeUtil.RECIPE_TYPE_FACET, RecipeType.VEGETARIAN.getLabel(), 3),
+                        facetCount(RecipeUtil.SERVINGS_FACET, "4", 3),
+                        facetCount(RecipeUtil.INGREDIENT_FACET, "2", 1),
+                        facetCount(RecipeUtil.INGREDIENT_FACET, "1", 3)));
+        Mockito.when(ingredientRepository.findByIdIn(any())).thenReturn(getDummyIngredientList());
+
+        RecipeFacets firstPageFacets = recipeService.getRecipes(PageRequest.of(0, 1), null, null, null, "boil", null,
+                CountMode.NONE, true).getFacets();
+        RecipeFacets secondPageFacets = recipeService.getRecipes(PageRequest.of(1, 1), null, null, null, "boil", null,
+                CountMode.NONE, true).getFacets();
+        Assertions.assertSame(firstPageFacets, secondPageFacets);
+        Assertions.assertEquals(firstPageFacets.getRecipeTypes(), Map.of(RecipeType.VEGETARIAN.getLabel(), 3L));
+        Assertions.assertEquals(firstPageFacets.getServings(), Map.of(4, 3L));
+        Assertions.assertEquals(firstPageFacets.getIngredients().get(0).getIngredientId(), 1L);
+        Assertions.assertEquals(firstPageFacets.getIngredients().get(1).getIngredientName(), "Water");
+        Mockito.verify(recipeRepository, times(1)).countFacets(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    private static RecipeRepository.FacetCount facetCount(String facet, String value, long count) {
+        return new RecipeRepository.FacetCount() {
+            @Override
+            public String getFacet() {
+                return facet;
+            }
+
+            @Override
+            public String getFacetValue() {
+                return value;
+            }
+
+            @Override
+            public long getFacetCount() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Loads recipes 1 and 2 (vegetarian, ingredient 1, 4 and 2 servings) and recipe 3 (non vegetarian, ingredient 2,
+     * 4 servings) into the index.
+     */
+    private void rebuildRecipeIngredientIndex() {
+        Mockito.doAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(0);
+            consumer.accept(1L, 1L);
+            consumer.accept(2L, 1L);
+            consumer.accept(3L, 2L);
+            return null;
+        }).when(recipeJdbcRepository).streamIngredientRecipeIds(any());
+        Mockito.doAnswer(invocation -> {
+            Consumer<Recipe> consumer = invocation.getArgument(0);
+            consumer.accept(Recipe.builder().id(1L).recipeType(RecipeType.VEGETARIAN.getLabel()).servingsNumber(4).build());
+            consumer.accept(Recipe.builder().id(2L).recipeType(RecipeType.VEGETARIAN.getLabel()).servingsNumber(2).build());
+            consumer.accept(Recipe.builder().id(3L).recipeType(RecipeType.NON_VEGETARIAN.getLabel()).servingsNumber(4).build());
+            return null;
+        }).when(recipeJdbcRepository).streamRecipeFilterAttributes(any());
+        recipeIngredientIndex.rebuild();
     }
 }
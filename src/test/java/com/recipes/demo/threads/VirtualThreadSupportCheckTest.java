@@ -0,0 +1,29 @@
+package com.recipes.demo.threads;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+public class VirtualThreadSupportCheckTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadSupportCheck.class)
+            .withClassLoader(new FilteredClassLoader("com.recipes.demo.threads.VirtualThreadConfig"));
+
+    @Test
+    public void testStartupFailsWhenVirtualThreadsEnabledWithoutJdk21Build() {
+        contextRunner.withPropertyValues("recipes.threads.virtual.enabled=true")
+                .run(context -> {
+                    Assertions.assertNotNull(context.getStartupFailure());
+                    Assertions.assertEquals(context.getStartupFailure().getMessage(),
+                            VirtualThreadSupportCheck.MISSING_JDK21_BUILD);
+                });
+    }
+
+    @Test
+    public void testStartupSucceedsWhenVirtualThreadsDisabled() {
+        contextRunner.withPropertyValues("recipes.threads.virtual.enabled=false")
+                .run(context -> Assertions.assertNull(context.getStartupFailure()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.recipes.demo.util;
+
+import com.recipes.demo.metrics.SqlStatementScope;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.mockito.MockingDetails;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Pins how many SQL statements a code path may run. Against a real DataSource statements are counted by
+ * {@link SqlStatementScope}; with mocked repositories each repository call counts as one round trip.
+ */
+public class SqlStatementAssertions {
+
+    private static final String REQUEST_STATEMENTS_METRIC = "http.server.requests.sql.statements";
+    private static final long REQUEST_METRIC_TIMEOUT_MILLIS = 2000;
+
+    public record RequestStatements(long requests, double statements) {
+    }
+
+    /**
+     * Runs the call on the current thread and fails when it executes more than {@code maximumStatements} statements.
+     */
+    public static <T> T assertMaxStatements(int maximumStatements, ThrowingSupplier<T> call) throws Throwable {
+        try (SqlStatementScope scope = SqlStatementScope.open("assertMaxStatements")) {
+            T result = call.get();
+            Assertions.assertTrue(scope.getStatementCount() <= maximumStatements,
+                    () -> String.format("Expected at most %d SQL statements but ran %d: %s",
+                            maximumStatements, scope.getStatementCount(), scope.getStatementCounts()));
+            return result;
+        }
+    }
+
+    /**
+     * Runs the call on the current thread and fails when any statement shape runs {@code threshold} times or more.
+     */
+    public static <T> T assertNoRepeatedStatements(int threshold, ThrowingSupplier<T> call) throws Throwable {
+        try (SqlStatementScope scope = SqlStatementScope.open("assertNoRepeatedStatements")) {
+            T result = call.get();
+            Assertions.assertTrue(scope.getRepeatedStatements(threshold).isEmpty(),
+                    () -> "Repeated SQL statements: " + scope.getRepeatedStatements(threshold));
+            return result;
+        }
+    }
+
+    /**
+     * Fails when the mocked repositories received more than {@code maximumCalls} calls in total.
+     */
+    public static void assertMaxRepositoryCalls(int maximumCalls, Object... repositoryMocks) {
+        int calls = Arrays.stream(repositoryMocks)
+                .map(Mockito::mockingDetails)
+                .map(MockingDetails::getInvocations)
+                .mapToInt(Collection::size)
+                .sum();
+        Assertions.assertTrue(calls <= maximumCalls,
+                () -> String.format("Expected at most %d repository calls but got %d", maximumCalls, calls));
+    }
+
+    /**
+     * Snapshot of the per-request statement distribution, taken before an HTTP call made from another thread.
+     */
+    public static RequestStatements recordedRequestStatements(MeterRegistry meterRegistry) {
+        Collection<DistributionSummary> summaries = meterRegistry.find(REQUEST_STATEMENTS_METRIC).summaries();
+        return new RequestStatements(summaries.stream().mapToLong(DistributionSummary::count).sum(),
+                summaries.stream().mapToDouble(DistributionSummary::totalAmount).sum());
+    }
+
+    /**
+     * Fails when the single HTTP request completed since {@code before} ran more than {@code maximumStatements}
+     * statements. The server records the metric after the response is sent, so this waits briefly for it.
+     */
+    public static void assertMaxRequestStatements(MeterRegistry meterRegistry, RequestStatements before,
+                                                  int maximumStatements) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + REQUEST_METRIC_TIMEOUT_MILLIS;
+        RequestStatements after = recordedRequestStatements(meterRegistry);
+        while (after.requests() == before.requests() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            after = recordedRequestStatements(meterRegistry);
+        }
+        Assertions.assertEquals(before.requests() + 1, after.requests(), "Expected one recorded request");
+        double statements = after.statements() - before.statements();
+        Assertions.assertTrue(statements <= maximumStatements,
+                () -> String.format("Expected at most %d SQL statements but the request ran %.0f",
+                        maximumStatements, statements));
+    }
+}
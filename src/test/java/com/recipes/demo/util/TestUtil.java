@@ -166,18 +166,21 @@ public class TestUtil {
     public static List<IngredientRecipe> getDummyRecipeIngredientRecipeList() {
         IngredientRecipe ingredientRecipe1 = IngredientRecipe.builder()
                 .id(1L)
+                .recipeId(1L)
                 .ingredientId(1L)
                 .measurementUnitId(1L)
                 .build();
 
         IngredientRecipe ingredientRecipe2 = IngredientRecipe.builder()
                 .id(2L)
+                .recipeId(1L)
                 .ingredientId(2L)
                 .measurementUnitId(2L)
                 .build();
 
         IngredientRecipe ingredientRecipe3 = IngredientRecipe.builder()
                 .id(3L)
+                .recipeId(1L)
                 .ingredientId(3L)
                 .measurementUnitId(3L)
                 .build();